@@ -3,11 +3,11 @@ package com.fishwagon.auth;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
-import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ConfigurationPropertiesScan("com.fishwagon.auth.config")
-@EnableFeignClients(basePackages = "com.fishwagon.auth.feignclient")
+@EnableScheduling
 public class AuthenticationServiceApplication {
 
 	public static void main(String[] args) {
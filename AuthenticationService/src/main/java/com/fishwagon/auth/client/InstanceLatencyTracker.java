@@ -0,0 +1,163 @@
+package com.fishwagon.auth.client;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-instance latency and health of UserManagementService, fed by every call
+ * and read by {@link LatencyAwareLoadBalancer}.
+ *
+ * Latency is a peak-sensitive, time-decayed EWMA: a slower sample replaces the
+ * average at once, faster samples pull it down over user-service.load-balancer.decay-time.
+ * Failures count as a full call timeout. After consecutive-failures failures in
+ * a row the instance is ejected for base-ejection-time, doubling on each repeat.
+ */
+@Component
+public class InstanceLatencyTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceLatencyTracker.class);
+
+    private final UserClientProperties properties;
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceLatencyTracker(UserClientProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Measures each exchange against the instance it was sent to. Must run after
+     * the load-balancer filter has replaced the service id with the instance address.
+     */
+    public ExchangeFilterFunction recordingFilter() {
+        return (request, next) -> Mono.defer(() -> {
+            InstanceStats instance = stats(key(request.url()));
+            long start = System.nanoTime();
+            instance.inFlight.incrementAndGet();
+            AtomicBoolean done = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnSuccess(response -> complete(instance, start, done,
+                            response != null && !response.statusCode().is5xxServerError()))
+                    .doOnError(e -> complete(instance, start, done, false))
+                    .doOnCancel(() -> complete(instance, start, done, false));  // Timed out by the caller
+        });
+    }
+
+    /**
+     * @return lower is better: expected latency scaled by the calls already waiting on the instance
+     */
+    double score(ServiceInstance instance) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        return instanceStats == null ? 0 : instanceStats.score();
+    }
+
+    boolean isEjected(ServiceInstance instance, long now) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        return instanceStats != null && instanceStats.isEjected(now);
+    }
+
+    private void complete(InstanceStats instance, long start, AtomicBoolean done, boolean success) {
+        if (!done.compareAndSet(false, true)) {
+            return;
+        }
+        instance.inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        long latency = success ? now - start : Math.max(now - start, properties.getTimeout().toNanos());
+        instance.record(now, latency, success);
+    }
+
+    private InstanceStats stats(String key) {
+        InstanceStats existing = stats.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        // A new address is rare (scale-out, redeploy): forget instances that have been idle for long
+        long now = System.nanoTime();
+        long idleLimit = Math.max(properties.getLoadBalancer().getDecayTime().toNanos() * 10,
+                properties.getLoadBalancer().getMaxEjectionTime().toNanos());
+        stats.values().removeIf(instance -> instance.isIdleSince(now, idleLimit));
+        return stats.computeIfAbsent(key, InstanceStats::new);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static String key(URI uri) {
+        return uri.getHost() + ":" + uri.getPort();
+    }
+
+    private final class InstanceStats {
+
+        private static final double MIN_COST_NANOS = 1_000;  // Unmeasured instances still count their in-flight calls
+
+        private final String address;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // Guarded by this
+        private double ewmaNanos;
+        private long lastSampleNanos;
+        private boolean seeded;
+        private int consecutiveFailures;
+        private int ejections;
+        private volatile long ejectedUntilNanos;
+        private volatile boolean ejected;
+
+        private InstanceStats(String address) {
+            this.address = address;
+        }
+
+        private synchronized double score() {
+            return Math.max(ewmaNanos, MIN_COST_NANOS) * (inFlight.get() + 1);
+        }
+
+        private synchronized boolean isIdleSince(long now, long idleLimit) {
+            return inFlight.get() == 0 && seeded && now - lastSampleNanos > idleLimit && !isEjected(now);
+        }
+
+        private boolean isEjected(long now) {
+            return ejected && now - ejectedUntilNanos < 0;
+        }
+
+        private synchronized void record(long now, long latencyNanos, boolean success) {
+            UserClientProperties.LoadBalancer settings = properties.getLoadBalancer();
+            if (!seeded || latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;  // Peak-sensitive: react to a slowdown immediately
+                seeded = true;
+            } else {
+                double weight = Math.exp(-(double) (now - lastSampleNanos) / settings.getDecayTime().toNanos());
+                ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+            }
+            lastSampleNanos = now;
+
+            if (success) {
+                consecutiveFailures = 0;
+                return;
+            }
+            if (++consecutiveFailures < settings.getConsecutiveFailures() || isEjected(now)) {
+                return;
+            }
+            if (ejected && now - ejectedUntilNanos > settings.getMaxEjectionTime().toNanos()) {
+                ejections = 0;  // Healthy for a long while since the last ejection: start over
+            }
+            long duration = Math.min(settings.getBaseEjectionTime().toNanos() << Math.min(ejections, 20),
+                    settings.getMaxEjectionTime().toNanos());
+            ejections++;
+            consecutiveFailures = 0;
+            ejectedUntilNanos = now + duration;
+            ejected = true;
+            logger.warn("Ejecting UserManagementService instance {} for {} ms after repeated failures",
+                    address, duration / 1_000_000);
+        }
+    }
+}
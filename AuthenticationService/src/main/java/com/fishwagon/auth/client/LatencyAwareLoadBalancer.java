@@ -0,0 +1,76 @@
+package com.fishwagon.auth.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Power-of-two-choices over the UserManagementService instances: two instances
+ * are drawn at random (ejected ones excluded) and the one with the lower
+ * {@link InstanceLatencyTracker#score} gets the call. This steers load away
+ * from slow or busy replicas without the herding a pure "fastest wins" rule
+ * causes when every client sees the same numbers.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier;
+    private final InstanceLatencyTracker tracker;
+    private final int maxEjectionPercent;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+            InstanceLatencyTracker tracker, UserClientProperties properties) {
+        this.instanceListSupplier = instanceListSupplier;
+        this.tracker = tracker;
+        this.maxEjectionPercent = properties.getLoadBalancer().getMaxEjectionPercent();
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplier.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> candidates = available(instances);
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;  // Two distinct instances
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(tracker.score(a) <= tracker.score(b) ? a : b);
+    }
+
+    private List<ServiceInstance> available(List<ServiceInstance> instances) {
+        long now = System.nanoTime();
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!tracker.isEjected(instance, now)) {
+                healthy.add(instance);
+            }
+        }
+        int maxEjected = instances.size() * maxEjectionPercent / 100;
+        // 🔹 Too many ejected (or all of them): spreading over everything beats piling onto a few survivors
+        return instances.size() - healthy.size() > maxEjected || healthy.isEmpty() ? instances : healthy;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fishwagon.auth.client;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import com.fishwagon.auth.dto.UserAuthDTO;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * UserManagementService endpoints, proxied over the pooled, guarded WebClient
+ * built in {@link UserClientConfig}.
+ */
+@HttpExchange("/users")
+public interface UserClient {
+    @GetExchange("/internal/findByUsername/{username}")
+    Mono<UserAuthDTO> getUserByUsername(@PathVariable String username);
+    
+    @GetExchange("/internal/findAuthByUsername/{username}")
+    Mono<UserAuthDTO> getUserAuthByUsername(@PathVariable String username);  // ✅ User + role name in one call (service assertion)
+    
+    @GetExchange("/public/roles")
+    Mono<ResponseEntity<Map<Long, String>>> getRoles(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String etag);  // ✅ Whole role table, 304 when unchanged
+
+    @PostExchange("/internal/rehashPassword")
+    Mono<Void> rehashPassword(@RequestBody Map<String, String> credentials);  // ✅ Replace an out-of-band BCrypt cost after login (service assertion)
+}
@@ -0,0 +1,114 @@
+package com.fishwagon.auth.client;
+
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import com.fishwagon.common.assertion.ServiceAssertionExchangeFilter;
+import com.fishwagon.common.assertion.ServiceAssertionSigner;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking client for UserManagementService.
+ *
+ * Every call goes through a keep-alive connection pool, a per-call timeout, a
+ * bulkhead and a circuit breaker. A slow or failing UserManagementService can
+ * therefore hold at most bulkhead.max-concurrent-calls request threads for at
+ * most one timeout; once the breaker opens, calls fail immediately and the
+ * rest of the service (refresh, JWKS, logout) is unaffected.
+ *
+ * The service id is resolved through discovery on every call, and each call
+ * goes to the replica {@link LatencyAwareLoadBalancer} picks, so adding
+ * UserManagementService instances adds login capacity.
+ */
+@Configuration
+@LoadBalancerClient(name = UserClientConfig.SERVICE_ID, configuration = UserServiceLoadBalancerConfig.class)
+public class UserClientConfig {
+
+    static final String SERVICE_ID = "UserManagementService";  // spring.application.name, as registered in Eureka
+
+    static final String NAME = "userService";
+
+    @Bean
+    CircuitBreaker userServiceCircuitBreaker(UserClientProperties properties, MeterRegistry meterRegistry) {
+        UserClientProperties.CircuitBreaker settings = properties.getCircuitBreaker();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                // 5xx answers count as failures; 4xx (e.g. unknown user) are the service working normally
+                .recordResult(result -> result instanceof ClientResponse response
+                        && response.statusCode().is5xxServerError())
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(NAME);
+    }
+
+    @Bean
+    Bulkhead userServiceBulkhead(UserClientProperties properties, MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkhead().getMaxConcurrentCalls())
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(NAME);
+    }
+
+    @Bean
+    UserClient userClient(WebClient.Builder webClientBuilder, UserClientProperties properties,
+            CircuitBreaker userServiceCircuitBreaker, Bulkhead userServiceBulkhead,
+            LoadBalancedExchangeFilterFunction loadBalancer, InstanceLatencyTracker latencyTracker,
+            ServiceAssertionSigner serviceAssertionSigner) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(NAME)
+                .maxConnections(properties.getPool().getMaxConnections())
+                .pendingAcquireTimeout(properties.getPool().getPendingAcquireTimeout())
+                .maxIdleTime(properties.getPool().getMaxIdleTime())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis());
+
+        // Bulkhead inside the breaker, so calls rejected by the open breaker never take a permit.
+        // The guard wraps the load balancer: timeout and breaker apply to the call, retries on another instance included
+        ExchangeFilterFunction guard = (request, next) -> next.exchange(request)
+                .timeout(properties.getTimeout())
+                .transformDeferred(BulkheadOperator.of(userServiceBulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(userServiceCircuitBreaker));
+
+        WebClient webClient = webClientBuilder
+                .baseUrl("http://" + SERVICE_ID)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(guard)                                 // outermost
+                .filter(new ServiceAssertionExchangeFilter(serviceAssertionSigner))  // 🔒 signed as AuthenticationService
+                .filter(loadBalancer)                          // service id -> chosen instance
+                .filter(latencyTracker.recordingFilter())      // innermost: sees the instance address
+                .build();
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient))
+                .build()
+                .createClient(UserClient.class);
+    }
+}
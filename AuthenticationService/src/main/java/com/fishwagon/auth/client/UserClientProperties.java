@@ -0,0 +1,257 @@
+package com.fishwagon.auth.client;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "user-service")  // ✅ Binds user-service.* (UserManagementService client)
+public class UserClientProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    // ✅ Whole call, including waiting for a pooled connection
+    private Duration timeout = Duration.ofSeconds(2);
+
+    // Retry-After sent to clients while UserManagementService is unavailable
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private final Pool pool = new Pool();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private final LoadBalancer loadBalancer = new LoadBalancer();
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public LoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    /**
+     * Keep-alive connection pool to UserManagementService.
+     */
+    public static class Pool {
+
+        private int maxConnections = 50;
+
+        // Calls waiting longer than this for a free connection fail instead of queueing
+        private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+    }
+
+    /**
+     * Caps the request threads that can be waiting on UserManagementService at once;
+     * calls beyond it fail immediately.
+     */
+    public static class Bulkhead {
+
+        private int maxConcurrentCalls = 32;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+
+    /**
+     * Opens after too many failed (error, timeout, 5xx) or slow calls in the sliding window.
+     */
+    public static class CircuitBreaker {
+
+        private float failureRateThreshold = 50;
+
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+
+        private float slowCallRateThreshold = 80;
+
+        private int slidingWindowSize = 20;
+
+        private int minimumNumberOfCalls = 10;
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        private int permittedCallsInHalfOpenState = 3;
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getSlowCallDurationThreshold() {
+            return slowCallDurationThreshold;
+        }
+
+        public void setSlowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+
+    /**
+     * Latency-aware choice between the UserManagementService instances found in Eureka.
+     */
+    public static class LoadBalancer {
+
+        // How quickly old latency samples fade; shorter reacts faster but is noisier
+        private Duration decayTime = Duration.ofSeconds(10);
+
+        // Consecutive failures (errors, timeouts, 5xx) that take an instance out of rotation
+        private int consecutiveFailures = 3;
+
+        // First ejection lasts this long; each repeated ejection doubles it up to maxEjectionTime
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+        // Never eject more than this share of the instances
+        private int maxEjectionPercent = 50;
+
+        public Duration getDecayTime() {
+            return decayTime;
+        }
+
+        public void setDecayTime(Duration decayTime) {
+            this.decayTime = decayTime;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public void setConsecutiveFailures(int consecutiveFailures) {
+            this.consecutiveFailures = consecutiveFailures;
+        }
+
+        public Duration getBaseEjectionTime() {
+            return baseEjectionTime;
+        }
+
+        public void setBaseEjectionTime(Duration baseEjectionTime) {
+            this.baseEjectionTime = baseEjectionTime;
+        }
+
+        public Duration getMaxEjectionTime() {
+            return maxEjectionTime;
+        }
+
+        public void setMaxEjectionTime(Duration maxEjectionTime) {
+            this.maxEjectionTime = maxEjectionTime;
+        }
+
+        public int getMaxEjectionPercent() {
+            return maxEjectionPercent;
+        }
+
+        public void setMaxEjectionPercent(int maxEjectionPercent) {
+            this.maxEjectionPercent = maxEjectionPercent;
+        }
+    }
+}
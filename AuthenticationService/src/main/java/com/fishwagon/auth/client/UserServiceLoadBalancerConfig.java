@@ -0,0 +1,27 @@
+package com.fishwagon.auth.client;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load-balancer settings for the UserManagementService client, applied through
+ * {@code @LoadBalancerClient} in {@link UserClientConfig}. Deliberately not a
+ * {@code @Configuration}: it belongs to the client's own child context, not the
+ * application context. Instances come from the default supplier (Eureka, cached).
+ */
+public class UserServiceLoadBalancerConfig {
+
+    @Bean
+    ReactorLoadBalancer<ServiceInstance> userServiceLoadBalancer(Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory, InstanceLatencyTracker tracker,
+            UserClientProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                tracker, properties);
+    }
+}
@@ -0,0 +1,27 @@
+package com.fishwagon.auth.client;
+
+import java.time.Duration;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * UserManagementService could not be reached, did not answer in time, answered
+ * with a 5xx, or is shielded by the open circuit breaker or the full bulkhead.
+ * Controllers map it to 503 with Retry-After. Extends InternalAuthenticationServiceException so the
+ * authentication providers rethrow it as is, instead of reporting bad credentials.
+ */
+public class UserServiceUnavailableException extends InternalAuthenticationServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public UserServiceUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
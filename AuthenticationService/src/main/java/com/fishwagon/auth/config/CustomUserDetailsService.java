@@ -5,46 +5,97 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import com.fishwagon.auth.feignclient.UserClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+
+import com.fishwagon.auth.client.UserClient;
+import com.fishwagon.auth.client.UserClientProperties;
+import com.fishwagon.auth.client.UserServiceUnavailableException;
 import com.fishwagon.auth.dto.UserAuthDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
     private final UserClient userClient;
+    private final UserDetailsCache userDetailsCache;
+    private final RoleDirectory roleDirectory;
+    private final UserClientProperties userClientProperties;
 
-    public CustomUserDetailsService(UserClient userClient) {
+    public CustomUserDetailsService(UserClient userClient, UserDetailsCache userDetailsCache, RoleDirectory roleDirectory,
+            UserClientProperties userClientProperties) {
         this.userClient = userClient;
+        this.userDetailsCache = userDetailsCache;
+        this.roleDirectory = roleDirectory;
+        this.userClientProperties = userClientProperties;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // ✅ Served locally until the entry expires or is invalidated; concurrent misses share one fetch
+        return userDetailsCache.get(username, this::fetchUser);
+    }
+
+    private UserDetails fetchUser(String username) {
+        UserAuthDTO user;
         try {
-            UserAuthDTO user = userClient.getUserByUsername(username);
-            if (user == null) {
-                logger.error("User not found: {}", username);
-                throw new UsernameNotFoundException("User not found: " + username);
+            // ✅ One call returns the user together with its role name. The wait is bounded by the
+            // client's timeout, bulkhead and circuit breaker, never by UserManagementService itself
+            user = userClient.getUserAuthByUsername(username)
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                    .block();
+        } catch (RuntimeException e) {
+            Throwable failure = Exceptions.unwrap(e);  // block() wraps the checked TimeoutException
+            if (!isUnavailable(failure)) {
+                throw e;
             }
-
-            // ✅ Fetch role name dynamically
-            String roleName = userClient.getRoleNameById(user.getRoleId());
-            System.out.println("🔍 Fetched Role: " + roleName);
-
-            // ✅ Remove "ROLE_" prefix before assigning it to Spring Security
-            String springRoleName = roleName.startsWith("ROLE_") ? roleName.substring(5) : roleName;
-            
-            return User.builder()
-                    .username(user.getUsername())
-                    .password(user.getPassword())
-                    .roles(springRoleName)  // ✅ Use role name without "ROLE_"
-                    .build();
-        } catch (Exception e) {
-            logger.error("Error fetching user {} from UserService: {}", username, e.getMessage());
-            throw new UsernameNotFoundException("UserService unavailable: " + e.getMessage());
+            logger.error("Error fetching user {} from UserService: {}", username, failure.toString());
+            throw new UserServiceUnavailableException("UserService unavailable", userClientProperties.getRetryAfter(),
+                    failure);
         }
+        if (user == null) {
+            logger.error("User not found: {}", username);
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+
+        // ✅ Fall back to the local role mirror, never to a per-user remote lookup
+        String roleName = user.getRoleName() != null
+                ? user.getRoleName()
+                : roleDirectory.findRoleName(user.getRoleId())
+                        .orElseThrow(() -> new UsernameNotFoundException("Unknown role id " + user.getRoleId()));
+        logger.debug("🔍 Fetched Role: {}", roleName);
+
+        // ✅ Remove "ROLE_" prefix before assigning it to Spring Security
+        String springRoleName = roleName.startsWith("ROLE_") ? roleName.substring(5) : roleName;
+        
+        return User.builder()
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .roles(springRoleName)  // ✅ Use role name without "ROLE_"
+                .build();
+    }
+
+    /**
+     * 🔹 Only failures a later retry can fix become 503: no connection, no answer in time, a 5xx,
+     * or a call refused by the bulkhead or the open circuit breaker. Other 4xx answers
+     * (a rejected service assertion, say) and programming errors surface as they are.
+     */
+    private static boolean isUnavailable(Throwable failure) {
+        return failure instanceof WebClientRequestException  // Connect errors, resets, pool acquire timeouts
+                || failure instanceof TimeoutException
+                || failure instanceof BulkheadFullException
+                || failure instanceof CallNotPermittedException
+                || (failure instanceof WebClientResponseException response
+                        && response.getStatusCode().is5xxServerError());
     }
 
 }
@@ -1,50 +1,16 @@
 package com.fishwagon.auth.config;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-import java.util.UUID;
-
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-
+// ✅ Signing keys live in com.fishwagon.auth.keys.SigningKeyStore (file-backed, rotated, shared by replicas)
 @Configuration
 public class JwksConfig {
 
-    private final RSAKey rsaKey;
-
-    public JwksConfig() {
-        KeyPair keyPair = generateRsaKey();
-        this.rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
-                .privateKey((RSAPrivateKey) keyPair.getPrivate())
-                .keyID(UUID.randomUUID().toString())
-                .build();
-    }
-
-    private KeyPair generateRsaKey() {
-        try {
-            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-            keyPairGenerator.initialize(2048);
-            return keyPairGenerator.generateKeyPair();
-        } catch (Exception e) {
-            throw new IllegalStateException("Error generating RSA key pair", e);
-        }
-    }
-
     @Bean
      JwtDecoder jwtDecoder() {
         return NimbusJwtDecoder.withJwkSetUri("http://localhost:8081/.well-known/jwks.json").build();
     }
-
-
-    @Bean
-    public JWKSet jwkSet() {
-        return new JWKSet(rsaKey);
-    }
 }
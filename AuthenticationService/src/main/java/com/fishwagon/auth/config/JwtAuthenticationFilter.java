@@ -1,15 +1,21 @@
 package com.fishwagon.auth.config;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.jwt.VerifiedToken;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,6 +33,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final JwtConfig jwtConfig;
+    private final GatewayAssertionProperties gatewayAssertionProperties;
 
     /**
      * Constructor for JwtAuthenticationFilter.
@@ -36,10 +44,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * and validation.
      * @param userDetailsService 
      * Service to load user details based on username.
+     * @param jwtConfig
+     * JWT settings; selects the claims-only authentication path.
+     * @param gatewayAssertionProperties
+     * Trusted-gateway settings; this filter is off while they are enabled.
      */
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, JwtConfig jwtConfig,
+            GatewayAssertionProperties gatewayAssertionProperties) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.jwtConfig = jwtConfig;
+        this.gatewayAssertionProperties = gatewayAssertionProperties;
+    }
+
+    /**
+     * In trusted-gateway mode the gateway has already verified the token;
+     * {@link com.fishwagon.common.assertion.GatewayAssertionFilter} authenticates the request instead.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return gatewayAssertionProperties.isEnabled();
     }
 
     /**
@@ -74,14 +98,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            // Extract username from the token
-            String username = jwtUtil.extractUsername(token);
+            // Verify the token once and keep the parsed result
+            VerifiedToken verified = jwtUtil.verify(token);
 
-            // Load user details from the database or in-memory storage
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Claims-only mode trusts the verified token and skips the 
+            //round-trip to UserManagementService
+            UserDetails userDetails = jwtConfig.isClaimsOnlyAuthentication()
+                    ? userDetailsFromClaims(verified)
+                    : userDetailsService.loadUserByUsername(verified.getSubject());
 
-            // Validate the token against the user details
-            if (jwtUtil.validateToken(token, userDetails)) {
+            // Validate the verified token against the user details
+            if (jwtUtil.validateToken(verified, userDetails)) {
                 // Set authentication in the SecurityContext to authorize the request
                 SecurityContextHolder.getContext().setAuthentication(
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())
@@ -98,4 +125,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue the request processing
         chain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from a verified token's subject and 
+     * roles claim, without any remote lookup.
+     *
+     * @param verified The verified token.
+     * @return UserDetails carrying the token's subject and authorities.
+     */
+    private UserDetails userDetailsFromClaims(VerifiedToken verified) {
+        List<SimpleGrantedAuthority> authorities = verified.getRoles().stream()
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new User(verified.getSubject(), "", authorities);
+    }
 }
@@ -1,5 +1,7 @@
 package com.fishwagon.auth.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -7,13 +9,55 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "jwt")  // ✅ Common JWT config for all services
 public class JwtConfig {
 
-    private String secret;
+    // ✅ Authenticate bearer tokens from their claims only, without loading the user
+    private boolean claimsOnlyAuthentication = false;
+
+    // ✅ Local cache in front of UserManagementService lookups (jwt.user-cache.*)
+    private final UserCache userCache = new UserCache();
+
+    public boolean isClaimsOnlyAuthentication() {
+        return claimsOnlyAuthentication;
+    }
+
+    public void setClaimsOnlyAuthentication(boolean claimsOnlyAuthentication) {
+        this.claimsOnlyAuthentication = claimsOnlyAuthentication;
+    }
 
-    public String getSecret() {
-        return secret;
+    public UserCache getUserCache() {
+        return userCache;
     }
 
-    public void setSecret(String secret) {
-        this.secret = secret;
+    public static class UserCache {
+
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private long maxSize = 10_000;
+
+        // How often each replica evicts users revoked on any replica (RevokedUserEvictor)
+        private Duration revocationSyncInterval = Duration.ofSeconds(5);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getRevocationSyncInterval() {
+            return revocationSyncInterval;
+        }
+
+        public void setRevocationSyncInterval(Duration revocationSyncInterval) {
+            this.revocationSyncInterval = revocationSyncInterval;
+        }
     }
 }
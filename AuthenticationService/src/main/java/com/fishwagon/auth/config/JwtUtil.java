@@ -1,13 +1,16 @@
 package com.fishwagon.auth.config;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
+import com.fishwagon.auth.keys.KeyRing;
+import com.fishwagon.auth.keys.SigningKeyStore;
+import com.fishwagon.common.jwt.VerifiedToken;
+
 import java.security.Key;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,12 +23,32 @@ import java.util.stream.Collectors;
 @Component
 public class JwtUtil {
 
-    // Secret key used for signing JWT tokens 
-	//(must be long enough for HMAC SHA key)
-    private static final String SECRET_KEY = "your-secret-key-must-be-long-enough"; 
-
-    // Generate a secure signing key using the HMAC SHA algorithm
-    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    // ✅ Lifetime of access tokens; revocations only have to be remembered this long
+    public static final Duration ACCESS_TOKEN_TTL = Duration.ofHours(1);
+
+    // Rotating RSA keys published in the JWKS; tokens carry the kid so verifiers can pick the matching public key
+    private final SigningKeyStore signingKeyStore;
+
+    // The parser is immutable and thread-safe, so it is built once 
+    //instead of on every call
+    private final JwtParser jwtParser;
+
+    public JwtUtil(SigningKeyStore signingKeyStore) {
+        this.signingKeyStore = signingKeyStore;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Any published key verifies: active, next, or retired within its retention
+                        Key key = signingKeyStore.getKeyRing().getPublicKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("No signing key for kid " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
 
     private String token; // Holds the generated token
 
@@ -37,8 +60,6 @@ public class JwtUtil {
      * @return The generated JWT token.
      */
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-
         // Fetch roles (authorities) from UserDetails and 
         //store them in a list
         Collection<? extends GrantedAuthority> roles = userDetails.getAuthorities();
@@ -46,17 +67,36 @@ public class JwtUtil {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
+        return generateToken(userDetails.getUsername(), roleNames);
+    }
+
+    /**
+     * Generates a JWT token for a username and its role names, e.g. when
+     * exchanging a refresh token without loading the user again.
+     *
+     * @param username The token subject.
+     * @param roleNames The authorities to put in the roles claim.
+     * @return The generated JWT token.
+     */
+    public String generateToken(String username, Collection<String> roleNames) {
+        Map<String, Object> claims = new HashMap<>();
+
         // Add roles to the claims map
-        claims.put("roles", roleNames);
+        claims.put("roles", new ArrayList<>(roleNames));
+
+        // kid and private key must come from the same snapshot in case a rotation happens concurrently
+        KeyRing keys = signingKeyStore.getKeyRing();
 
         // Build the JWT token with subject (username), claims, 
         //issue date, expiration, and signature
         token = Jwts.builder()
                 .setClaims(claims)
-                .setSubject(userDetails.getUsername()) // User identifier
+                .setId(UUID.randomUUID().toString()) // ✅ jti, lets a single token be revoked
+                .setSubject(username) // User identifier
                 .setIssuedAt(new Date()) // Token issue time
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))  // ✅ 1-hour expiry
-                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256) // Securely sign the token
+                .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_TTL.toMillis()))  // ✅ 1-hour expiry
+                .setHeaderParam(JwsHeader.KEY_ID, keys.getActiveKeyId()) // ✅ Lets verifiers select the key from the JWKS
+                .signWith(keys.getActivePrivateKey(), SignatureAlgorithm.RS256) // Securely sign the token
                 .compact();
 
         return token;
@@ -69,11 +109,18 @@ public class JwtUtil {
      * @return A Claims object containing the extracted data.
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SIGNING_KEY) // Use the signing key to validate the token
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifies the token signature once and returns its subject, 
+     * roles and expiry, so callers never parse the same token twice.
+     *
+     * @param token The JWT token.
+     * @return The typed view of the verified token.
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.fromClaims(extractAllClaims(token));
     }
 
     /**
@@ -97,11 +144,8 @@ public class JwtUtil {
      */
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            // Extract the username from the token
-            String username = extractUsername(token);
-
-            // Validate the token against the username and expiration
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+            // Parse the token once and validate the result
+            return validateToken(verify(token), userDetails);
 
         } catch (ExpiredJwtException e) { // Handle expired tokens
             System.err.println("Token expired: " + e.getMessage());
@@ -120,12 +164,15 @@ public class JwtUtil {
     }
 
     /**
-     * Checks if the JWT token has expired.
+     * Validates an already verified token against user details.
+     * It checks if the token's username matches the user and if 
+     * the token has expired, without parsing the token again.
      *
-     * @param token The JWT token.
-     * @return true if the token is expired, false otherwise.
+     * @param verified    The verified token.
+     * @param userDetails The user details for verification.
+     * @return true if the token is valid, false otherwise.
      */
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public boolean validateToken(VerifiedToken verified, UserDetails userDetails) {
+        return userDetails.getUsername().equals(verified.getSubject()) && !verified.isExpired();
     }
 }
@@ -0,0 +1,37 @@
+package com.fishwagon.auth.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.fishwagon.auth.client.UserClient;
+
+/**
+ * Sends rehash requests to UserManagementService without waiting for the
+ * answer, and drops the cached user so the next login sees the new hash.
+ */
+@Component
+public class PasswordRehashNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordRehashNotifier.class);
+
+    private final UserClient userClient;
+    private final UserDetailsCache userDetailsCache;
+
+    public PasswordRehashNotifier(UserClient userClient, UserDetailsCache userDetailsCache) {
+        this.userClient = userClient;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    public void requestRehash(String username, String rawPassword) {
+        // ✅ Fire and forget on the non-blocking client; the login thread never waits for it
+        userClient.rehashPassword(Map.of("username", username, "password", rawPassword))
+                .subscribe(
+                        null,
+                        // Best effort: the next login will try again
+                        e -> logger.warn("Password rehash for {} failed: {}", username, e.getMessage()),
+                        () -> userDetailsCache.invalidate(username));
+    }
+}
@@ -0,0 +1,36 @@
+package com.fishwagon.auth.config;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.fishwagon.common.hashing.PasswordHashingService;
+
+/**
+ * DaoAuthenticationProvider that, after a successful password check, asks
+ * UserManagementService to rehash the stored password when its BCrypt cost
+ * is outside the accepted band. The request is fired asynchronously, so login latency is
+ * unchanged.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordHashingService passwordHashingService;
+    private final PasswordRehashNotifier passwordRehashNotifier;
+
+    public RehashingAuthenticationProvider(PasswordHashingService passwordHashingService,
+            PasswordRehashNotifier passwordRehashNotifier) {
+        super(passwordHashingService.getPasswordEncoder());
+        this.passwordHashingService = passwordHashingService;
+        this.passwordRehashNotifier = passwordRehashNotifier;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+            UserDetails user) {
+        // Credentials are still present here; ProviderManager erases them afterwards
+        if (authentication.getCredentials() != null && passwordHashingService.needsRehash(user.getPassword())) {
+            passwordRehashNotifier.requestRehash(user.getUsername(), authentication.getCredentials().toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,58 @@
+package com.fishwagon.auth.config;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fishwagon.auth.dto.RevocationEntryDTO;
+import com.fishwagon.auth.dto.RevocationSyncDTO;
+import com.fishwagon.auth.service.RevocationService;
+
+/**
+ * Evicts revoked users from this replica's {@link UserDetailsCache}.
+ *
+ * A user revocation reaches one replica over HTTP, but every replica may hold
+ * the user's password hash in its cache. Each replica therefore reads the
+ * shared revocation table the gateways sync from, every
+ * jwt.user-cache.revocation-sync-interval, and drops the users revoked since
+ * its last read. A deleted user can log in on another replica for at most that
+ * interval, instead of for the whole cache ttl.
+ */
+@Component
+public class RevokedUserEvictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedUserEvictor.class);
+
+    // Re-read this far back, so rows committed late with an earlier recordedAt are not missed
+    private static final Duration OVERLAP = Duration.ofSeconds(10);
+
+    private final RevocationService revocationService;
+    private final UserDetailsCache userDetailsCache;
+
+    private volatile Instant cursor = Instant.now().minus(OVERLAP);
+
+    public RevokedUserEvictor(RevocationService revocationService, UserDetailsCache userDetailsCache) {
+        this.revocationService = revocationService;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.user-cache.revocation-sync-interval:PT5S}")
+    public void sync() {
+        try {
+            RevocationSyncDTO changes = revocationService.changesSince(cursor);
+            for (RevocationEntryDTO entry : changes.getEntries()) {
+                if ("USER".equals(entry.getType())) {
+                    userDetailsCache.invalidate(entry.getValue());  // Entries re-read in the overlap are evicted again; harmless
+                }
+            }
+            cursor = changes.getServerTime().minus(OVERLAP);
+        } catch (RuntimeException e) {
+            // Keep the cursor: the next run picks up what this one missed
+            logger.warn("User revocation sync failed: {}", e.getMessage());
+        }
+    }
+}
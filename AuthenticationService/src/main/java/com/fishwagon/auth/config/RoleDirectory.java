@@ -0,0 +1,57 @@
+package com.fishwagon.auth.config;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fishwagon.auth.client.UserClient;
+
+/**
+ * Local mirror of UserManagementService's role table.
+ *
+ * Polls /users/public/roles with If-None-Match, so an unchanged table costs a
+ * single 304 per interval. Role names are then resolved in memory instead of
+ * calling UserManagementService once per lookup.
+ */
+@Component
+public class RoleDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleDirectory.class);
+
+    private final UserClient userClient;
+
+    private volatile Map<Long, String> roleNames = Map.of();
+    private volatile String etag;
+
+    public RoleDirectory(UserClient userClient) {
+        this.userClient = userClient;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${roles.mirror.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            ResponseEntity<Map<Long, String>> response = userClient.getRoles(etag).block();  // Scheduler thread
+            if (response != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                return;
+            }
+            if (response != null && response.getBody() != null) {
+                roleNames = Map.copyOf(response.getBody());
+                etag = response.getHeaders().getETag();
+                logger.info("Role mirror refreshed: {} roles (etag {})", roleNames.size(), etag);
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the last known table until UserManagementService is reachable again
+            logger.warn("Role mirror refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public Optional<String> findRoleName(Long roleId) {
+        return Optional.ofNullable(roleNames.get(roleId));
+    }
+}
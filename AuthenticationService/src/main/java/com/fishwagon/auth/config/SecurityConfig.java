@@ -7,16 +7,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import jakarta.servlet.http.HttpServletResponse;
 
+import com.fishwagon.common.assertion.GatewayAssertion;
+import com.fishwagon.common.assertion.GatewayAssertionCodec;
+import com.fishwagon.common.assertion.GatewayAssertionFilter;
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.hashing.PasswordHashingService;
+
 @Configuration  // ✅ Marks this class as a Spring configuration class
 public class SecurityConfig {
 
@@ -25,10 +29,14 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
  // ✅ Custom JWT authentication filter
     private final JwtAuthenticationFilter jwtAuthenticationFilter; 
+ // ✅ Signed gateway/service assertions; replaces the JWT filter when gateway-assertion.enabled
+    private final GatewayAssertionFilter gatewayAssertionFilter;
 
-    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(UserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthenticationFilter,
+            GatewayAssertionCodec gatewayAssertionCodec, GatewayAssertionProperties gatewayAssertionProperties) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.gatewayAssertionFilter = new GatewayAssertionFilter(gatewayAssertionCodec, gatewayAssertionProperties);
     }
 
     /**
@@ -51,6 +59,11 @@ public class SecurityConfig {
                 .requestMatchers("/auth/public/**").permitAll()  
                 // ✅ Public endpoints: No authentication required for these URLs
                 .requestMatchers("/.well-known/jwks.json").permitAll() 
+                // 🔒 Service-to-service only (revocation sync, user revocation): a service assertion is required,
+                // and the gateway denies it from outside
+                .requestMatchers("/auth/internal/**").hasAuthority(GatewayAssertion.SERVICE_ROLE)
+                // ✅ Cache administration is restricted to admins
+                .requestMatchers("/auth/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()  
                 // ✅ All other requests require authentication
             )
@@ -64,6 +77,7 @@ public class SecurityConfig {
                 })
             )
 
+            .addFilterBefore(gatewayAssertionFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);  
             // ✅ Adds JWT filter before Spring Security's UsernamePasswordAuthenticationFilter
             // This ensures requests are authenticated based on JWT before other authentication mechanisms.
@@ -74,25 +88,30 @@ public class SecurityConfig {
 
     /**
      * Defines a password encoder bean that securely hashes passwords 
-     * using the BCrypt algorithm.
+     * using the BCrypt algorithm, at the calibrated cost and on the
+     * bounded password-hashing pool.
      */
     @Bean
-    PasswordEncoder passwordEncoder() {
+    PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
         logger.info("Creating BCryptPasswordEncoder bean.");
-        return new BCryptPasswordEncoder();  // ✅ Passwords are securely hashed using BCrypt
+        // ✅ Passwords are securely hashed using BCrypt, never on the request thread
+        return passwordHashingService.getPasswordEncoder();
     }
     
     /**
-     * Configures the AuthenticationManager to use DaoAuthenticationProvider, 
-     * which retrieves user details from the database.
+     * Configures the AuthenticationManager to use a DaoAuthenticationProvider, 
+     * which retrieves user details from the database and requests a rehash
+     * when the stored BCrypt cost is outside the accepted band.
      */
     @Bean
-    AuthenticationManager authenticationManager() {
+    AuthenticationManager authenticationManager(PasswordHashingService passwordHashingService,
+            PasswordRehashNotifier passwordRehashNotifier) {
         logger.info("Configuring AuthenticationManager with DaoAuthenticationProvider.");
 
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        // ✅ Uses the shared BCrypt password encoder
+        RehashingAuthenticationProvider authProvider =
+                new RehashingAuthenticationProvider(passwordHashingService, passwordRehashNotifier);
         authProvider.setUserDetailsService(userDetailsService);  // ✅ Load user details from database
-        authProvider.setPasswordEncoder(passwordEncoder());  // ✅ Use BCrypt password encoder
 
         logger.info("AuthenticationManager setup complete.");
         return new ProviderManager(List.of(authProvider));  
@@ -0,0 +1,91 @@
+package com.fishwagon.auth.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Local, time-bounded cache of user details fetched from UserManagementService.
+ *
+ * Callers always receive a copy of the cached entry: the ProviderManager erases
+ * credentials on the returned principal after authentication, which must not
+ * wipe the password hash held in the cache.
+ *
+ * Entries are futures: the first caller for a missing user installs one and
+ * fetches, and callers that arrive meanwhile wait for it, so a burst of logins
+ * for one user after a restart or an expiry wave costs one UserManagementService
+ * call. Hits and misses are exported as the cache.* metrics of "user-details".
+ */
+@Component
+public class UserDetailsCache {
+
+    private final AsyncCache<String, UserDetails> cache;
+
+    public UserDetailsCache(JwtConfig jwtConfig, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getUserCache().getMaxSize())
+                .expireAfterWrite(jwtConfig.getUserCache().getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-details");
+    }
+
+    /**
+     * Returns the cached user, invoking the loader only on a miss and at most
+     * once for concurrent misses on the same username. Exceptions thrown by the
+     * loader are propagated to every waiting caller and nothing is cached.
+     *
+     * The loader runs on the calling thread after its future is in the cache,
+     * not inside Caffeine's compute: that holds a ConcurrentHashMap bin lock,
+     * which would pin a virtual thread to its carrier for the whole remote call.
+     * An invalidate while the load runs removes the future, so the result it
+     * completes with is handed to the waiting callers but never stored.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        CompletableFuture<UserDetails> load = new CompletableFuture<>();
+        CompletableFuture<UserDetails> entry = cache.get(username, (key, executor) -> load);
+        if (entry == load) {
+            try {
+                load.complete(loader.apply(username));  // null is not cached either
+            } catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+                throw e;
+            }
+        }
+        UserDetails user = await(entry);
+        return user == null ? null : User.withUserDetails(user).build();  // A copy per caller, also for shared loads
+    }
+
+    public void invalidate(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    // Rethrow what the loading caller saw, so every caller handles the same exception type
+    private static UserDetails await(CompletableFuture<UserDetails> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,15 +2,29 @@
 package com.fishwagon.auth.controller;
 
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
+import com.fishwagon.auth.client.UserServiceUnavailableException;
 import com.fishwagon.auth.config.JwtUtil;
+import com.fishwagon.auth.config.UserDetailsCache;
+import com.fishwagon.auth.service.InvalidRefreshTokenException;
+import com.fishwagon.auth.service.RefreshTokenService;
+import com.fishwagon.auth.service.RevocationService;
+import com.fishwagon.auth.service.RotatedRefreshToken;
+import com.fishwagon.common.hashing.PasswordHashingRejectedException;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,13 +33,19 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenService refreshTokenService;
+    private final RevocationService revocationService;
 
-    public AuthController(AuthenticationManager authenticationManager, UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+            UserDetailsCache userDetailsCache, RefreshTokenService refreshTokenService,
+            RevocationService revocationService) {
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.userDetailsCache = userDetailsCache;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationService = revocationService;
     }
     
     @GetMapping("/public/test")
@@ -37,16 +57,95 @@ public class AuthController {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // The user is loaded once, inside the authentication provider; 
+        //its principal is reused for the token
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password));
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
         // Generate JWT token
         String token = jwtUtil.generateToken(userDetails);
 
-        return ResponseEntity.ok(Map.of("token", token));
+        // ✅ Long-lived refresh token, so the client does not repeat this BCrypt login every hour
+        List<String> roles = userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        String refreshToken = refreshTokenService.issue(userDetails.getUsername(), roles);
+
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", refreshToken));
+    }
+
+    // ✅ Exchange a refresh token for a new access token and a new refresh token (the old one is spent).
+    // No password check; the roles come from the (cached) user lookup, not from the login.
+    @PostMapping("/public/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> request) {
+        RotatedRefreshToken rotated = refreshTokenService.rotate(request.get("refreshToken"));
+        String token = jwtUtil.generateToken(rotated.getUsername(), rotated.getRoles());
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", rotated.getRefreshToken()));
+    }
+
+    // 🔒 Logout: revoke the presented access token (all gateways reject it within one sync interval)
+    // and, if given, the refresh token family it was issued with
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> request) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(authorization.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();  // Not a token of ours, nothing to revoke
+        }
+        revocationService.revokeToken(claims.getId(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant());
+        if (request != null) {
+            refreshTokenService.revokeFamily(request.get("refreshToken"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // 🔒 Revoke every access and refresh token of a user, e.g. after disabling the account
+    @PostMapping("/admin/revocations/users/{username}")
+    public ResponseEntity<Void> revokeUser(@PathVariable String username) {
+        revocationService.revokeUser(username);
+        userDetailsCache.invalidate(username);
+        return ResponseEntity.noContent().build();
+    }
+
+    // 🔒 Drop one user's cached details, e.g. after a password or role change
+    @DeleteMapping("/admin/cache/users/{username}")
+    public ResponseEntity<Void> evictUser(@PathVariable String username) {
+        userDetailsCache.invalidate(username);
+        return ResponseEntity.noContent().build();
     }
-}
 
+    // 🔒 Drop the whole user-details cache
+    @DeleteMapping("/admin/cache/users")
+    public ResponseEntity<Void> evictAllUsers() {
+        userDetailsCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
 
+    // 🔒 Unknown, expired, revoked or replayed refresh token: the client has to log in again
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String, String>> invalidRefreshToken(InvalidRefreshTokenException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+    }
 
+    // ✅ Hashing pool saturated: tell the client to back off instead of queueing forever
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, String>> hashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(Map.of("error", "Login temporarily unavailable, please retry"));
+    }
 
+    // ✅ UserManagementService slow, down or shielded by the circuit breaker: fail fast, the client retries
+    @ExceptionHandler(UserServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> userServiceUnavailable(UserServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(Map.of("error", "Login temporarily unavailable, please retry"));
+    }
+}
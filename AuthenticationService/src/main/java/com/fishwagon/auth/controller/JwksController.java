@@ -1,24 +1,77 @@
 package com.fishwagon.auth.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.nimbusds.jose.jwk.JWKSet;
+import com.fishwagon.auth.keys.KeyRing;
+import com.fishwagon.auth.keys.SigningKeyStore;
 
 @RestController
 @RequestMapping("/.well-known")
 public class JwksController {
 
-    private final JWKSet jwkSet;
+    // ✅ Verifiers refetch at most this often; key changes are picked up via the ETag
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final SigningKeyStore signingKeyStore;
+
+    // The JSON and its ETag are rebuilt only when the key set version changes (rotation or retirement)
+    private volatile Rendered rendered;
 
-    public JwksController(JWKSet jwkSet) {
-        this.jwkSet = jwkSet;
+    public JwksController(SigningKeyStore signingKeyStore) {
+        this.signingKeyStore = signingKeyStore;
     }
 
-    @GetMapping("/jwks.json")
-    public String getJwks() {
-        return jwkSet.toJSONObject().toString();
+    @GetMapping(value = "/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks(WebRequest request) {
+        Rendered jwks = render();
+        if (request.checkNotModified(jwks.etag)) {
+            return null;  // 304 Not Modified already prepared by checkNotModified
+        }
+        return ResponseEntity.ok().eTag(jwks.etag).cacheControl(CACHE_CONTROL).body(jwks.body);
+    }
+
+    private Rendered render() {
+        KeyRing keys = signingKeyStore.getKeyRing();
+        Rendered current = rendered;
+        if (current == null || current.version != keys.getVersion()) {
+            String body = keys.toPublicJwkSet().toString(true);  // ✅ Public keys only
+            current = new Rendered(keys.getVersion(), body, etag(body));
+            rendered = current;
+        }
+        return current;
     }
-}
 
+    private static String etag(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Rendered {
+
+        private final long version;
+        private final String body;
+        private final String etag;
+
+        private Rendered(long version, String body, String etag) {
+            this.version = version;
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.fishwagon.auth.controller;
+
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fishwagon.auth.config.UserDetailsCache;
+import com.fishwagon.auth.dto.RevocationSyncDTO;
+import com.fishwagon.auth.service.RevocationService;
+
+// ✅ Called by the gateways and UserManagementService; never routed from outside (the gateway denies /auth/internal/**)
+@RestController
+@RequestMapping("/auth/internal")
+public class RevocationController {
+
+    private final RevocationService revocationService;
+    private final UserDetailsCache userDetailsCache;
+
+    public RevocationController(RevocationService revocationService, UserDetailsCache userDetailsCache) {
+        this.revocationService = revocationService;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    // Revocations recorded since the given instant (omit for a full load) that have not expired yet
+    @GetMapping("/revocations")
+    public RevocationSyncDTO getRevocations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since) {
+        return revocationService.changesSince(since == null ? Instant.EPOCH : since);
+    }
+
+    // 🔒 UserManagementService deleted the user: every access and refresh token of it stops working
+    @PostMapping("/revocations/users/{username}")
+    public ResponseEntity<Void> revokeUser(@PathVariable String username) {
+        revocationService.revokeUser(username);
+        userDetailsCache.invalidate(username);  // This replica now; the others on their next RevokedUserEvictor sync
+        return ResponseEntity.noContent().build();
+    }
+}
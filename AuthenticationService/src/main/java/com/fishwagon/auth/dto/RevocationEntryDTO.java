@@ -0,0 +1,41 @@
+package com.fishwagon.auth.dto;
+
+import java.time.Instant;
+
+import com.fishwagon.auth.model.RevocationEntity;
+
+public class RevocationEntryDTO {
+
+    private String type;  // ✅ "TOKEN" (value is a jti) or "USER" (value is a username)
+    private String value;
+    private Instant recordedAt;  // For USER: tokens issued at or before this instant are revoked
+    private Instant expiresAt;  // Verifiers may forget the entry after this
+
+    public RevocationEntryDTO(String type, String value, Instant recordedAt, Instant expiresAt) {
+        this.type = type;
+        this.value = value;
+        this.recordedAt = recordedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public static RevocationEntryDTO from(RevocationEntity entity) {
+        return new RevocationEntryDTO(entity.getType().name(), entity.getValue(),
+                entity.getRecordedAt(), entity.getExpiresAt());
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
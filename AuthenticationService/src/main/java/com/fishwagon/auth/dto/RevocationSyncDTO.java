@@ -0,0 +1,23 @@
+package com.fishwagon.auth.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class RevocationSyncDTO {
+
+    private Instant serverTime;  // ✅ Base for the caller's next "since" cursor
+    private List<RevocationEntryDTO> entries;
+
+    public RevocationSyncDTO(Instant serverTime, List<RevocationEntryDTO> entries) {
+        this.serverTime = serverTime;
+        this.entries = entries;
+    }
+
+    public Instant getServerTime() {
+        return serverTime;
+    }
+
+    public List<RevocationEntryDTO> getEntries() {
+        return entries;
+    }
+}
@@ -5,11 +5,13 @@ public class UserAuthDTO {
 	private String username;
     private String password;  // ✅ Include hashed password for authentication
     private Long roleId;  // ✅ Include role for authorization
+    private String roleName;  // ✅ Role name resolved by UserManagementService
 
-    public UserAuthDTO(String username, String password, Long roleId) {
+    public UserAuthDTO(String username, String password, Long roleId, String roleName) {
         this.username = username;
         this.password = password;
         this.roleId = roleId;
+        this.roleName = roleName;
     }
 
     public String getUsername() {
@@ -24,4 +26,8 @@ public class UserAuthDTO {
         return roleId;
     }
 
+    public String getRoleName() {
+        return roleName;
+    }
+
 }
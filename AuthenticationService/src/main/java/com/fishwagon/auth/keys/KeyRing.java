@@ -0,0 +1,156 @@
+package com.fishwagon.auth.keys;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * Immutable snapshot of the signing keys.
+ *
+ * active signs new tokens; next is already published so verifiers know it
+ * before it is promoted; retired keys stay published until every token they
+ * signed has expired. Each change bumps the version, which is how replicas
+ * notice that the keystore file moved on.
+ */
+public final class KeyRing {
+
+    private final long version;
+    private final Instant rotatedAt;
+    private final RSAKey active;
+    private final RSAKey next;
+    private final List<RetiredKey> retired;
+
+    // Converted once per snapshot instead of on every sign/verify
+    private final PrivateKey activePrivateKey;
+    private final Map<String, PublicKey> publicKeys;
+
+    private KeyRing(long version, Instant rotatedAt, RSAKey active, RSAKey next, List<RetiredKey> retired) {
+        this.version = version;
+        this.rotatedAt = rotatedAt;
+        this.active = active;
+        this.next = next;
+        this.retired = List.copyOf(retired);
+        try {
+            this.activePrivateKey = active.toRSAPrivateKey();
+            Map<String, PublicKey> keys = new HashMap<>();
+            for (RSAKey key : allKeys()) {
+                keys.put(key.getKeyID(), key.toRSAPublicKey());
+            }
+            this.publicKeys = Map.copyOf(keys);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Unusable RSA signing key", e);
+        }
+    }
+
+    static KeyRing create(Instant now, Supplier<RSAKey> keyGenerator) {
+        return new KeyRing(1, now, keyGenerator.get(), keyGenerator.get(), List.of());
+    }
+
+    /**
+     * Promotes next to active when the rotation interval has passed and drops
+     * retired keys past their retention.
+     *
+     * @return the updated ring, or this ring if nothing changed
+     */
+    KeyRing advance(Instant now, Duration rotationInterval, Duration retention, Supplier<RSAKey> keyGenerator) {
+        List<RetiredKey> kept = new ArrayList<>(retired.size() + 1);
+        for (RetiredKey key : retired) {
+            if (key.retiredAt.plus(retention).isAfter(now)) {
+                kept.add(key);
+            }
+        }
+        if (!now.isBefore(rotatedAt.plus(rotationInterval))) {
+            kept.add(0, new RetiredKey(active, now));
+            return new KeyRing(version + 1, now, next, keyGenerator.get(), kept);
+        }
+        if (kept.size() != retired.size()) {
+            return new KeyRing(version + 1, rotatedAt, active, next, kept);
+        }
+        return this;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getActiveKeyId() {
+        return active.getKeyID();
+    }
+
+    public PrivateKey getActivePrivateKey() {
+        return activePrivateKey;
+    }
+
+    /**
+     * @return the public key for a kid of this ring (active, next or retired), or null
+     */
+    public PublicKey getPublicKey(String kid) {
+        return kid == null ? null : publicKeys.get(kid);
+    }
+
+    /**
+     * @return the public halves of all keys, active first
+     */
+    public JWKSet toPublicJwkSet() {
+        return new JWKSet(allKeys().stream().<JWK>map(RSAKey::toPublicJWK).toList());
+    }
+
+    private List<RSAKey> allKeys() {
+        List<RSAKey> keys = new ArrayList<>(retired.size() + 2);
+        keys.add(active);
+        keys.add(next);
+        retired.forEach(key -> keys.add(key.key));
+        return keys;
+    }
+
+    // ✅ Keystore file format (private keys included)
+    Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("version", version);
+        json.put("rotatedAt", rotatedAt.toString());
+        json.put("active", active.toJSONObject());
+        json.put("next", next.toJSONObject());
+        json.put("retired", retired.stream().map(key -> Map.of(
+                "retiredAt", key.retiredAt.toString(),
+                "key", key.key.toJSONObject())).toList());
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    static KeyRing fromJson(Map<String, Object> json) throws ParseException {
+        List<RetiredKey> retired = new ArrayList<>();
+        for (Map<String, Object> entry : (List<Map<String, Object>>) json.getOrDefault("retired", List.of())) {
+            retired.add(new RetiredKey(RSAKey.parse((Map<String, Object>) entry.get("key")),
+                    Instant.parse((String) entry.get("retiredAt"))));
+        }
+        return new KeyRing(((Number) json.get("version")).longValue(),
+                Instant.parse((String) json.get("rotatedAt")),
+                RSAKey.parse((Map<String, Object>) json.get("active")),
+                RSAKey.parse((Map<String, Object>) json.get("next")),
+                retired);
+    }
+
+    private static final class RetiredKey {
+
+        private final RSAKey key;
+        private final Instant retiredAt;
+
+        private RetiredKey(RSAKey key, Instant retiredAt) {
+            this.key = key;
+            this.retiredAt = retiredAt;
+        }
+    }
+}
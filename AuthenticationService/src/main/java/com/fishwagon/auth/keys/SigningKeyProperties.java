@@ -0,0 +1,70 @@
+package com.fishwagon.auth.keys;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Location of the shared signing keystore and the rotation schedule.
+ */
+@Component
+@ConfigurationProperties(prefix = "signing-keys")
+public class SigningKeyProperties {
+
+    // ✅ Shared by all replicas (same volume); holds private keys, so keep it out of the image
+    private Path keystore = Path.of("keys", "signing-keys.json");
+
+    // How long a key signs tokens before the pre-published next key takes over.
+    // Must be far longer than the verifiers' JWKS refresh, so "next" is known everywhere before use.
+    private Duration rotationInterval = Duration.ofDays(7);
+
+    // How long a retired key stays in the JWKS; must cover the longest token lifetime
+    private Duration retiredKeyRetention = Duration.ofHours(2);
+
+    // How often each replica rereads the keystore and rotates when due
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    private int keySize = 2048;
+
+    public Path getKeystore() {
+        return keystore;
+    }
+
+    public void setKeystore(Path keystore) {
+        this.keystore = keystore;
+    }
+
+    public Duration getRotationInterval() {
+        return rotationInterval;
+    }
+
+    public void setRotationInterval(Duration rotationInterval) {
+        this.rotationInterval = rotationInterval;
+    }
+
+    public Duration getRetiredKeyRetention() {
+        return retiredKeyRetention;
+    }
+
+    public void setRetiredKeyRetention(Duration retiredKeyRetention) {
+        this.retiredKeyRetention = retiredKeyRetention;
+    }
+
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public int getKeySize() {
+        return keySize;
+    }
+
+    public void setKeySize(int keySize) {
+        this.keySize = keySize;
+    }
+}
@@ -0,0 +1,170 @@
+package com.fishwagon.auth.keys;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * File-backed signing keys shared by all AuthenticationService replicas.
+ *
+ * Every replica rereads the keystore each signing-keys.check-interval under an
+ * exclusive file lock; whichever replica finds a rotation due performs it and
+ * rewrites the file (temp file + atomic move), and the others pick up the new
+ * version on their next check. Because the next key is published a full
+ * rotation interval before it signs anything, and retired keys stay published
+ * until their tokens expire, replicas and verifiers can lag by a few minutes
+ * without any token failing verification.
+ */
+@Component
+public class SigningKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyStore.class);
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() { };
+
+    private final SigningKeyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Path keystore;
+    private final Path lockFile;
+
+    // FileLock is per process; this keeps the scheduler and startup from overlapping in one JVM
+    private final ReentrantLock localLock = new ReentrantLock();
+
+    private volatile KeyRing keyRing;
+
+    public SigningKeyStore(SigningKeyProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.keystore = properties.getKeystore().toAbsolutePath();
+        this.lockFile = keystore.resolveSibling(keystore.getFileName() + ".lock");
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+        if (keyRing == null) {
+            throw new IllegalStateException("No signing keys available from " + keystore);
+        }
+    }
+
+    /**
+     * @return the current keys; tokens must take kid and private key from the same snapshot
+     */
+    public KeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    /**
+     * Loads the keystore (creating it on first start), rotates when due and
+     * adopts whatever version the file now holds.
+     */
+    @Scheduled(fixedDelayString = "${signing-keys.check-interval:PT1M}",
+            initialDelayString = "${signing-keys.check-interval:PT1M}")
+    public void sync() {
+        localLock.lock();
+        try {
+            Files.createDirectories(keystore.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                KeyRing stored = read();
+                KeyRing updated = stored == null
+                        ? KeyRing.create(Instant.now(), this::generateKey)
+                        : stored.advance(Instant.now(), properties.getRotationInterval(),
+                                properties.getRetiredKeyRetention(), this::generateKey);
+                if (updated != stored) {
+                    write(updated);
+                }
+                adopt(updated, stored == null ? "created" : updated != stored ? "rotated" : "loaded");
+            }
+        } catch (IOException | ParseException | UncheckedIOException e) {
+            if (keyRing == null) {
+                throw new IllegalStateException("Cannot load signing keys from " + keystore, e);
+            }
+            logger.warn("Signing keystore check failed, keeping key set version {}: {}",
+                    keyRing.getVersion(), e.toString());
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private void adopt(KeyRing updated, String action) {
+        KeyRing current = keyRing;
+        if (current == null || current.getVersion() != updated.getVersion()) {
+            logger.info("Signing keys {} (version {}, active kid {})", action, updated.getVersion(),
+                    updated.getActiveKeyId());
+            keyRing = updated;
+        }
+    }
+
+    private KeyRing read() throws IOException, ParseException {
+        if (!Files.exists(keystore)) {
+            return null;
+        }
+        return KeyRing.fromJson(objectMapper.readValue(keystore.toFile(), JSON_OBJECT));
+    }
+
+    private void write(KeyRing ring) throws IOException {
+        Path temp = Files.createTempFile(keystore.getParent(), keystore.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(temp);
+            Files.write(temp, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(ring.toJson()));
+            try {
+                Files.move(temp, keystore, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, keystore, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // 🔒 The file holds private keys
+    private static void restrictToOwner(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system; rely on the directory permissions
+        }
+    }
+
+    private RSAKey generateKey() {
+        try {
+            return new RSAKeyGenerator(properties.getKeySize())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .keyID(UUID.randomUUID().toString())
+                    .issueTime(new Date())
+                    .generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Error generating RSA key pair", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fishwagon.auth.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One issued refresh token. Only the SHA-256 of the opaque token is stored.
+ *
+ * All tokens rotated from the same login share a familyId; presenting a
+ * token that was already used revokes the whole family (reuse detection).
+ * Every token of a family expires at the latest at familyExpiresAt, however
+ * often it is rotated.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "uk_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_username", columnList = "username"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at") })
+public class RefreshTokenEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;  // ✅ 32-byte binary digest, never the token itself
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(nullable = false, length = 100)
+    private String username;
+
+    @Column(nullable = false, length = 500)
+    private String roles;  // ✅ Comma-separated authorities captured at login
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "family_expires_at", nullable = false)
+    private Instant familyExpiresAt;  // ✅ Absolute end of the login; rotation never extends it
+
+    @Column(name = "used_at")
+    private Instant usedAt;  // Set when rotated; a second use is a replay
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    public RefreshTokenEntity() {}
+
+    public RefreshTokenEntity(byte[] tokenHash, UUID familyId, String username, String roles, Instant expiresAt,
+            Instant familyExpiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.username = username;
+        this.roles = roles;
+        this.expiresAt = expiresAt;
+        this.familyExpiresAt = familyExpiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public byte[] getTokenHash() {
+        return tokenHash;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRoles() {
+        return roles;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Instant getFamilyExpiresAt() {
+        return familyExpiresAt;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+}
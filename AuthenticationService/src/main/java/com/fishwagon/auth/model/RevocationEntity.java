@@ -0,0 +1,66 @@
+package com.fishwagon.auth.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A revoked access token (by jti) or a revoked user (every token issued up to recordedAt).
+ *
+ * Rows are only needed while a matching access token could still be valid,
+ * so expiresAt is the token's own expiry (TOKEN) or recordedAt plus the
+ * access-token lifetime (USER).
+ */
+@Entity
+@Table(name = "revocations", indexes = {
+        @Index(name = "idx_revocations_recorded", columnList = "recorded_at"),
+        @Index(name = "idx_revocations_expires", columnList = "expires_at") })
+public class RevocationEntity {
+
+    public enum Type { TOKEN, USER }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Type type;
+
+    @Column(name = "target", nullable = false, length = 100)  // "value" is reserved in some dialects
+    private String value;  // ✅ jti for TOKEN, username for USER
+
+    @Column(name = "recorded_at", nullable = false)
+    private Instant recordedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public RevocationEntity() {}
+
+    public RevocationEntity(Type type, String value, Instant recordedAt, Instant expiresAt) {
+        this.type = type;
+        this.value = value;
+        this.recordedAt = recordedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fishwagon.auth.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.fishwagon.auth.model.RefreshTokenEntity;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+
+    Optional<RefreshTokenEntity> findByTokenHash(byte[] tokenHash);
+
+    /*Claims the token for one rotation. The conditional update is the source of truth
+     * across replicas: exactly one caller gets 1, a concurrent or replayed use gets 0.*/
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.usedAt = :now "
+            + "WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false AND t.expiresAt > :now")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    // Reuse detected: every token rotated from the same login stops working
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    // Logout everywhere / user revoked: no refresh token of the user works any more
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.revoked = true WHERE t.username = :username AND t.revoked = false")
+    int revokeAllForUser(@Param("username") String username);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
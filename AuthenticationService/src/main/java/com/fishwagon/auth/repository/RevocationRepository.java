@@ -0,0 +1,22 @@
+package com.fishwagon.auth.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.fishwagon.auth.model.RevocationEntity;
+
+public interface RevocationRepository extends JpaRepository<RevocationEntity, Long> {
+
+    // Incremental sync: everything recorded since the caller's cursor that can still matter
+    @Query("SELECT r FROM RevocationEntity r WHERE r.recordedAt >= :since AND r.expiresAt > :now ORDER BY r.recordedAt")
+    List<RevocationEntity> findActiveSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevocationEntity r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,11 @@
+package com.fishwagon.auth.service;
+
+/**
+ * The presented refresh token is unknown, expired, revoked or was already used.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
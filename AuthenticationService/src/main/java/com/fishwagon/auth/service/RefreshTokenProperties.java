@@ -0,0 +1,58 @@
+package com.fishwagon.auth.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lifetime of refresh tokens and sizing of the in-memory cache in front of the token table.
+ */
+@Component
+@ConfigurationProperties(prefix = "refresh-token")
+public class RefreshTokenProperties {
+
+    // ✅ Each rotation issues a token valid this long, so an active client never logs in again
+    private Duration ttl = Duration.ofDays(14);
+
+    // 🔒 Absolute lifetime of a login: no token of the family outlives it, however often it is rotated
+    private Duration maxLifetime = Duration.ofDays(30);
+
+    // Recently issued tokens kept in memory so the next refresh skips the lookup query
+    private long cacheMaxSize = 100_000;
+
+    // How often expired rows are deleted
+    private Duration cleanupInterval = Duration.ofHours(1);
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+}
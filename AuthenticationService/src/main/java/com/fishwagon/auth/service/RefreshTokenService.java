@@ -0,0 +1,210 @@
+package com.fishwagon.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fishwagon.auth.model.RefreshTokenEntity;
+import com.fishwagon.auth.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ *
+ * A refresh costs one conditional UPDATE and one INSERT, and no password
+ * hashing. The user is looked up again through the cached UserDetailsService,
+ * so a refresh never outlives the account: a user who is gone or disabled, or
+ * whose roles changed since the login, loses the whole token family and has
+ * to log in again (role changes are seen once the user cache entry expires or
+ * is evicted). No family lives longer than refresh-token.max-lifetime.
+ * Freshly issued tokens are also kept in a local cache so the following
+ * refresh usually skips the lookup query. The cache is only a shortcut;
+ * whether a token may still be used is always decided by the conditional UPDATE.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenProperties properties;
+    private final UserDetailsService userDetailsService;
+    private final TransactionTemplate transaction;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Cache<String, RefreshTokenEntity> recentlyIssued;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, RefreshTokenProperties properties,
+            UserDetailsService userDetailsService, PlatformTransactionManager transactionManager) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.properties = properties;
+        this.userDetailsService = userDetailsService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.recentlyIssued = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Starts a new token family after a password login.
+     *
+     * @return the opaque refresh token to hand to the client
+     */
+    @Transactional
+    public String issue(String username, Collection<String> roles) {
+        Instant now = Instant.now();
+        return issue(UUID.randomUUID(), username, String.join(",", roles), now, now.plus(properties.getMaxLifetime()));
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. The presented token can never be used again;
+     * presenting an already used token revokes every token of its family, and so does a user
+     * that is gone, disabled or holds other roles than at login.
+     *
+     * Not one transaction: the user lookup may wait on UserManagementService, so it runs before
+     * any row is touched. If that lookup fails, the token is not spent and the client can retry.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused,
+     *         or the user may no longer use it
+     */
+    public RotatedRefreshToken rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+        byte[] hash = hash(refreshToken);
+        String cacheKey = Base64.getEncoder().encodeToString(hash);
+
+        RefreshTokenEntity token = recentlyIssued.getIfPresent(cacheKey);
+        recentlyIssued.invalidate(cacheKey);  // One use only, whatever happens next
+        if (token == null) {
+            token = refreshTokenRepository.findByTokenHash(hash)
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        }
+
+        Instant now = Instant.now();
+        if (!token.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+
+        // 🔒 Current roles, not the ones captured at login
+        List<String> roles = currentRoles(token.getUsername());
+        if (roles == null || !sameRoles(roles, token.getRoles())) {
+            revokeFamily(token, roles == null ? "user gone or disabled" : "roles changed");
+            throw new InvalidRefreshTokenException("Please log in again");
+        }
+
+        RefreshTokenEntity spent = token;
+        String next = transaction.execute(status -> {
+            if (refreshTokenRepository.markUsed(spent.getId(), now) == 0) {
+                return null;
+            }
+            return issue(spent.getFamilyId(), spent.getUsername(), String.join(",", roles), now,
+                    spent.getFamilyExpiresAt());
+        });
+        if (next == null) {
+            // 🔒 Used before (or revoked): whoever holds this family may have stolen it
+            revokeFamily(token, "refresh token reuse");
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        return new RotatedRefreshToken(next, token.getUsername(), roles);
+    }
+
+    /**
+     * Logout: the presented refresh token and every token rotated from the same login stop working.
+     * Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revokeFamily(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        byte[] hash = hash(refreshToken);
+        recentlyIssued.invalidate(Base64.getEncoder().encodeToString(hash));
+        refreshTokenRepository.findByTokenHash(hash)
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.cleanup-interval:PT1H}",
+            initialDelayString = "${refresh-token.cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    /**
+     * @return the user's authorities now, or null if the user no longer exists or may not log in
+     * @throws com.fishwagon.auth.client.UserServiceUnavailableException if the user cannot be looked up
+     */
+    private List<String> currentRoles(String username) {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            return null;
+        }
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private static boolean sameRoles(List<String> current, String atLogin) {
+        Set<String> previous = atLogin.isEmpty() ? Set.of() : Set.of(atLogin.split(","));
+        return previous.equals(Set.copyOf(current));
+    }
+
+    private void revokeFamily(RefreshTokenEntity token, String reason) {
+        Integer revoked = transaction.execute(status -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+        logger.warn("Revoked {} tokens of family {} for user {}: {}", revoked, token.getFamilyId(),
+                token.getUsername(), reason);
+    }
+
+    private String issue(UUID familyId, String username, String roles, Instant now, Instant familyExpiresAt) {
+        byte[] random = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(random);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        byte[] hash = hash(refreshToken);
+        RefreshTokenEntity saved = refreshTokenRepository.save(new RefreshTokenEntity(
+                hash, familyId, username, roles, min(now.plus(properties.getTtl()), familyExpiresAt), familyExpiresAt));
+        recentlyIssued.put(Base64.getEncoder().encodeToString(hash), saved);
+        return refreshToken;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static byte[] hash(String refreshToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.fishwagon.auth.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fishwagon.auth.config.JwtUtil;
+import com.fishwagon.auth.dto.RevocationEntryDTO;
+import com.fishwagon.auth.dto.RevocationSyncDTO;
+import com.fishwagon.auth.model.RevocationEntity;
+import com.fishwagon.auth.repository.RefreshTokenRepository;
+import com.fishwagon.auth.repository.RevocationRepository;
+
+/**
+ * Records revoked access tokens and users, and serves them to the gateways.
+ *
+ * Gateways poll {@link #changesSince(Instant)} every few seconds and keep the
+ * result in memory, so a revocation takes effect everywhere within one poll
+ * interval without any per-request call to this service.
+ */
+@Service
+public class RevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationService.class);
+
+    private final RevocationRepository revocationRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    public RevocationService(RevocationRepository revocationRepository,
+            RefreshTokenRepository refreshTokenRepository) {
+        this.revocationRepository = revocationRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    /**
+     * Revokes one access token until it would have expired anyway.
+     */
+    @Transactional
+    public void revokeToken(String jti, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(now)) {
+            return;  // Nothing to revoke: no id, or already expired
+        }
+        revocationRepository.save(new RevocationEntity(RevocationEntity.Type.TOKEN, jti, now, expiresAt));
+    }
+
+    /**
+     * Revokes every access token issued to the user so far, and all of the user's refresh tokens.
+     */
+    @Transactional
+    public void revokeUser(String username) {
+        Instant now = Instant.now();
+        revocationRepository.save(new RevocationEntity(RevocationEntity.Type.USER, username, now,
+                now.plus(JwtUtil.ACCESS_TOKEN_TTL)));
+        int refreshTokens = refreshTokenRepository.revokeAllForUser(username);
+        logger.info("Revoked all tokens of user {} ({} refresh tokens)", username, refreshTokens);
+    }
+
+    /**
+     * @param since only entries recorded at or after this instant; Instant.EPOCH for a full load
+     */
+    @Transactional(readOnly = true)
+    public RevocationSyncDTO changesSince(Instant since) {
+        Instant now = Instant.now();
+        List<RevocationEntryDTO> entries = revocationRepository.findActiveSince(since, now).stream()
+                .map(RevocationEntryDTO::from)
+                .toList();
+        return new RevocationSyncDTO(now, entries);
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.cleanup-interval:PT1H}",
+            initialDelayString = "${refresh-token.cleanup-interval:PT1H}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = revocationRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired revocations", deleted);
+        }
+    }
+}
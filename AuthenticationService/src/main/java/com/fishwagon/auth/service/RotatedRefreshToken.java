@@ -0,0 +1,32 @@
+package com.fishwagon.auth.service;
+
+import java.util.List;
+
+/**
+ * Result of a successful refresh: the replacement refresh token and the
+ * user's current identity, from which the new access token is built.
+ */
+public class RotatedRefreshToken {
+
+    private final String refreshToken;
+    private final String username;
+    private final List<String> roles;
+
+    public RotatedRefreshToken(String refreshToken, String username, List<String> roles) {
+        this.refreshToken = refreshToken;
+        this.username = username;
+        this.roles = roles;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+}
@@ -0,0 +1,100 @@
+package com.fishwagon.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fishwagon.auth.client.UserClient;
+import com.fishwagon.auth.client.UserClientProperties;
+import com.fishwagon.auth.client.UserServiceUnavailableException;
+import com.fishwagon.auth.dto.UserAuthDTO;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserClient userClient = mock(UserClient.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(userClient,
+            new UserDetailsCache(new JwtConfig(), new SimpleMeterRegistry()), mock(RoleDirectory.class),
+            new UserClientProperties());
+
+    @Test
+    void loadsTheUserWithItsRole() {
+        answer(Mono.just(new UserAuthDTO("alice", "hash", 3L, "ROLE_USER")));
+
+        UserDetails user = service.loadUserByUsername("alice");
+
+        assertThat(user.getPassword()).isEqualTo("hash");
+        assertThat(user.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void unknownUsersAreNotFound() {
+        answer(Mono.error(status(404)));
+
+        assertThatThrownBy(() -> service.loadUserByUsername("alice")).isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void failuresARetryCanFixAreUnavailable() {
+        for (Throwable failure : new Throwable[] {
+                new WebClientRequestException(new ConnectException("Connection refused"), HttpMethod.GET,
+                        URI.create("http://UserManagementService/users"), new HttpHeaders()),
+                new TimeoutException("Did not observe any item within 3000ms"),
+                status(500),
+                status(503),
+                BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("userService")),
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("userService"))}) {
+            answer(Mono.error(failure));
+
+            assertThatThrownBy(() -> service.loadUserByUsername("alice"))
+                    .as(failure.toString())
+                    .isInstanceOf(UserServiceUnavailableException.class)
+                    .hasCause(failure);
+        }
+    }
+
+    @Test
+    void otherClientErrorsSurface() {
+        WebClientResponseException forbidden = status(403);
+        answer(Mono.error(forbidden));
+
+        assertThatThrownBy(() -> service.loadUserByUsername("alice")).isSameAs(forbidden);
+    }
+
+    @Test
+    void programmingErrorsSurface() {
+        IllegalStateException bug = new IllegalStateException("bug");
+        answer(Mono.error(bug));
+
+        assertThatThrownBy(() -> service.loadUserByUsername("alice")).isSameAs(bug);
+    }
+
+    private void answer(Mono<UserAuthDTO> response) {
+        when(userClient.getUserAuthByUsername("alice")).thenReturn(response);
+    }
+
+    private static WebClientResponseException status(int status) {
+        return WebClientResponseException.create(status, "status " + status, new HttpHeaders(), new byte[0],
+                StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+package com.fishwagon.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.fishwagon.auth.dto.RevocationEntryDTO;
+import com.fishwagon.auth.dto.RevocationSyncDTO;
+import com.fishwagon.auth.service.RevocationService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RevokedUserEvictorTest {
+
+    private static final Instant SERVER_TIME = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final RevocationService revocationService = mock(RevocationService.class);
+    private final UserDetailsCache cache = new UserDetailsCache(new JwtConfig(), new SimpleMeterRegistry());
+    private final RevokedUserEvictor evictor = new RevokedUserEvictor(revocationService, cache);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Instant> cursors = new ArrayList<>();
+    private final Deque<RevocationSyncDTO> responses = new ArrayDeque<>();
+
+    RevokedUserEvictorTest() {
+        when(revocationService.changesSince(any())).thenAnswer(invocation -> {
+            cursors.add(invocation.getArgument(0));
+            if (responses.isEmpty()) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            return responses.removeFirst();
+        });
+    }
+
+    @Test
+    void evictsUsersRevokedOnAnyReplica() {
+        load("alice");
+        load("bob");
+        answer(SERVER_TIME, entry("USER", "alice"), entry("TOKEN", "bob"));
+
+        evictor.sync();
+
+        assertThat(load("alice").getPassword()).isEqualTo("hash-3");  // Reloaded
+        assertThat(load("bob").getPassword()).isEqualTo("hash-2");    // A revoked token leaves the user cached
+    }
+
+    @Test
+    void theCursorTrailsTheServerTimeByTheOverlap() {
+        answer(SERVER_TIME);
+        answer(SERVER_TIME.plusSeconds(5));
+
+        evictor.sync();
+        evictor.sync();
+
+        assertThat(cursors.get(1)).isEqualTo(Instant.parse("2026-01-01T11:59:50Z"));
+    }
+
+    @Test
+    void aFailedSyncKeepsTheCursor() {
+        answer(SERVER_TIME);
+
+        evictor.sync();
+        evictor.sync();  // Nothing queued: the read fails
+        evictor.sync();
+
+        assertThat(cursors.get(1)).isEqualTo(cursors.get(2));
+    }
+
+    private UserDetails load(String username) {
+        return cache.get(username, name -> User.withUsername(name).password("hash-" + loads.incrementAndGet())
+                .roles("USER").build());
+    }
+
+    private void answer(Instant serverTime, RevocationEntryDTO... entries) {
+        responses.add(new RevocationSyncDTO(serverTime, List.of(entries)));
+    }
+
+    private static RevocationEntryDTO entry(String type, String value) {
+        return new RevocationEntryDTO(type, value, SERVER_TIME, SERVER_TIME.plusSeconds(3600));
+    }
+}
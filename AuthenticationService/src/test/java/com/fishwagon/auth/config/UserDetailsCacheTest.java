@@ -0,0 +1,93 @@
+package com.fishwagon.auth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache cache = new UserDetailsCache(new JwtConfig(), new SimpleMeterRegistry());
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void cachesUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("alice", username -> user(username, "hash-" + loads.incrementAndGet()));
+        UserDetails cached = cache.get("alice", username -> user(username, "hash-" + loads.incrementAndGet()));
+        cache.invalidate("alice");
+        UserDetails reloaded = cache.get("alice", username -> user(username, "hash-" + loads.incrementAndGet()));
+
+        assertThat(cached.getPassword()).isEqualTo("hash-1");
+        assertThat(reloaded.getPassword()).isEqualTo("hash-2");
+    }
+
+    @Test
+    void invalidateDuringLoadIsNotOverwritten() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<UserDetails> stale = executor.submit(() -> cache.get("alice", username -> {
+            loading.countDown();
+            await(release);
+            return user(username, "old-hash");
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        cache.invalidate("alice");  // e.g. the password changed while the old hash was being fetched
+        release.countDown();
+
+        assertThat(stale.get(5, TimeUnit.SECONDS).getPassword()).isEqualTo("old-hash");
+        assertThat(cache.get("alice", username -> user(username, "new-hash")).getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void failuresAndMissingUsersAreNotCached() {
+        assertThatThrownBy(() -> cache.get("alice", username -> {
+            throw new IllegalStateException("user service down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("bob", username -> null)).isNull();
+
+        assertThat(cache.get("alice", username -> user(username, "hash")).getPassword()).isEqualTo("hash");
+        assertThat(cache.get("bob", username -> user(username, "hash")).getPassword()).isEqualTo("hash");
+    }
+
+    @Test
+    void callersReceiveCopies() {
+        UserDetails first = cache.get("alice", username -> user(username, "hash"));
+        UserDetails second = cache.get("alice", username -> user(username, "other"));
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(second.getPassword()).isEqualTo("hash");
+    }
+
+    private static UserDetails user(String username, String password) {
+        return User.withUsername(username).password(password).roles("USER").build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
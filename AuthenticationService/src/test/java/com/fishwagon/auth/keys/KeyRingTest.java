@@ -0,0 +1,147 @@
+package com.fishwagon.auth.keys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+class KeyRingTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Duration INTERVAL = Duration.ofDays(30);
+    private static final Duration RETENTION = Duration.ofDays(2);
+
+    private final Supplier<RSAKey> keys = new NumberedKeys();
+
+    @Test
+    void publishesNextBeforeItSigns() {
+        KeyRing ring = KeyRing.create(T0, keys);
+
+        assertThat(ring.getVersion()).isEqualTo(1);
+        assertThat(ring.getActiveKeyId()).isEqualTo("k1");
+        assertThat(kids(ring)).containsExactly("k1", "k2");
+        assertThat(ring.getPublicKey("k2")).isNotNull();
+    }
+
+    @Test
+    void keepsTheSameRingUntilTheIntervalHasPassed() {
+        KeyRing ring = KeyRing.create(T0, keys);
+
+        assertThat(ring.advance(T0.plus(INTERVAL).minusNanos(1), INTERVAL, RETENTION, keys)).isSameAs(ring);
+    }
+
+    @Test
+    void rotatesExactlyAtTheIntervalAndKeepsTheOldKeyVerifiable() {
+        KeyRing ring = KeyRing.create(T0, keys);
+
+        KeyRing rotated = ring.advance(T0.plus(INTERVAL), INTERVAL, RETENTION, keys);
+
+        assertThat(rotated.getVersion()).isEqualTo(2);
+        assertThat(rotated.getActiveKeyId()).isEqualTo("k2");
+        assertThat(kids(rotated)).containsExactly("k2", "k3", "k1");
+        assertThat(rotated.getPublicKey("k1")).isEqualTo(ring.getPublicKey("k1"));
+        assertThat(rotated.getPublicKey("k2")).isEqualTo(ring.getPublicKey("k2"));  // Verifiers already had it
+    }
+
+    @Test
+    void dropsRetiredKeysExactlyAtTheEndOfTheirRetention() {
+        Instant rotation = T0.plus(INTERVAL);
+        KeyRing rotated = KeyRing.create(T0, keys).advance(rotation, INTERVAL, RETENTION, keys);
+
+        KeyRing beforeExpiry = rotated.advance(rotation.plus(RETENTION).minusNanos(1), INTERVAL, RETENTION, keys);
+        KeyRing atExpiry = rotated.advance(rotation.plus(RETENTION), INTERVAL, RETENTION, keys);
+
+        assertThat(beforeExpiry).isSameAs(rotated);
+        assertThat(atExpiry.getVersion()).isEqualTo(3);
+        assertThat(atExpiry.getActiveKeyId()).isEqualTo("k2");
+        assertThat(atExpiry.getPublicKey("k1")).isNull();
+        assertThat(kids(atExpiry)).containsExactly("k2", "k3");
+    }
+
+    @Test
+    void droppingAKeyDoesNotPostponeTheNextRotation() {
+        Instant rotation = T0.plus(INTERVAL);
+        KeyRing ring = KeyRing.create(T0, keys).advance(rotation, INTERVAL, RETENTION, keys)
+                .advance(rotation.plus(RETENTION), INTERVAL, RETENTION, keys);
+
+        KeyRing rotatedAgain = ring.advance(rotation.plus(INTERVAL), INTERVAL, RETENTION, keys);
+
+        assertThat(rotatedAgain.getVersion()).isEqualTo(4);
+        assertThat(rotatedAgain.getActiveKeyId()).isEqualTo("k3");
+        assertThat(kids(rotatedAgain)).containsExactly("k3", "k4", "k2");
+    }
+
+    @Test
+    void aLateAdvanceRotatesAndExpiresInOneStep() {
+        Instant rotation = T0.plus(INTERVAL);
+        KeyRing ring = KeyRing.create(T0, keys).advance(rotation, INTERVAL, RETENTION, keys);
+
+        KeyRing late = ring.advance(rotation.plus(INTERVAL).plus(RETENTION), INTERVAL, RETENTION, keys);
+
+        assertThat(late.getVersion()).isEqualTo(3);
+        assertThat(kids(late)).containsExactly("k3", "k4", "k2");
+    }
+
+    @Test
+    void survivesTheKeystoreRoundTrip() throws Exception {
+        Instant rotation = T0.plus(INTERVAL);
+        KeyRing ring = KeyRing.create(T0, keys).advance(rotation, INTERVAL, RETENTION, keys);
+
+        KeyRing reloaded = KeyRing.fromJson(ring.toJson());
+
+        assertThat(reloaded.getVersion()).isEqualTo(ring.getVersion());
+        assertThat(reloaded.getActiveKeyId()).isEqualTo("k2");
+        assertThat(kids(reloaded)).containsExactly("k2", "k3", "k1");
+        assertThat(reloaded.getActivePrivateKey()).isEqualTo(ring.getActivePrivateKey());
+        // Timestamps survive too: the retired key still expires at the same instant
+        assertThat(reloaded.advance(rotation.plus(RETENTION).minusNanos(1), INTERVAL, RETENTION, keys))
+                .isSameAs(reloaded);
+        assertThat(reloaded.advance(rotation.plus(RETENTION), INTERVAL, RETENTION, keys).getPublicKey("k1"))
+                .isNull();
+    }
+
+    @Test
+    void unknownKeyIdsHaveNoKey() {
+        KeyRing ring = KeyRing.create(T0, keys);
+
+        assertThat(ring.getPublicKey(null)).isNull();
+        assertThat(ring.getPublicKey("k9")).isNull();
+    }
+
+    @Test
+    void publishesOnlyPublicHalves() {
+        KeyRing ring = KeyRing.create(T0, keys);
+
+        assertThat(ring.toPublicJwkSet().getKeys()).noneMatch(JWK::isPrivate);
+        assertThat(((Map<?, ?>) ring.toJson().get("active")).containsKey("d")).isTrue();  // The keystore keeps them
+    }
+
+    private static List<String> kids(KeyRing ring) {
+        return ring.toPublicJwkSet().getKeys().stream().map(JWK::getKeyID).toList();
+    }
+
+    // Key ids k1, k2, ... in generation order; the smallest size Nimbus accepts keeps the test fast
+    private static final class NumberedKeys implements Supplier<RSAKey> {
+
+        private int generated;
+
+        @Override
+        public RSAKey get() {
+            try {
+                return new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS).keyID("k" + ++generated).generate();
+            } catch (JOSEException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
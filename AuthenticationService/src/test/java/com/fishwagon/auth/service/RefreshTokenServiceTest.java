@@ -0,0 +1,164 @@
+package com.fishwagon.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fishwagon.auth.client.UserServiceUnavailableException;
+import com.fishwagon.auth.model.RefreshTokenEntity;
+import com.fishwagon.auth.repository.RefreshTokenRepository;
+
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final RefreshTokenProperties properties = new RefreshTokenProperties();
+    private final Map<String, UserDetails> users = new HashMap<>();
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setTtl(Duration.ofDays(14));
+        properties.setMaxLifetime(Duration.ofDays(30));
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.markUsed(any(), any())).thenReturn(1);
+        service = new RefreshTokenService(repository, properties, this::loadUser, new NoOpTransactionManager());
+        users.put("alice", User.withUsername("alice").password("").roles("USER").build());
+    }
+
+    @Test
+    void rotationKeepsTheFamilyExpiry() {
+        String token = service.issue("alice", List.of("ROLE_USER"));
+        RefreshTokenEntity first = lastSaved();
+        properties.setMaxLifetime(Duration.ofDays(1));  // Only new logins are affected
+
+        service.rotate(token);
+        RefreshTokenEntity second = lastSaved();
+
+        assertThat(second.getFamilyId()).isEqualTo(first.getFamilyId());
+        assertThat(second.getFamilyExpiresAt()).isEqualTo(first.getFamilyExpiresAt());
+        assertThat(first.getFamilyExpiresAt()).isBetween(Instant.now().plus(Duration.ofDays(29)),
+                Instant.now().plus(Duration.ofDays(30)));
+    }
+
+    @Test
+    void tokensNeverOutliveTheirFamily() {
+        properties.setMaxLifetime(Duration.ofDays(3));
+
+        service.issue("alice", List.of("ROLE_USER"));
+        RefreshTokenEntity token = lastSaved();
+
+        assertThat(token.getExpiresAt()).isEqualTo(token.getFamilyExpiresAt());
+    }
+
+    @Test
+    void rotationIssuesTheCurrentRoles() {
+        String token = service.issue("alice", List.of("ROLE_USER"));
+
+        RotatedRefreshToken rotated = service.rotate(token);
+
+        assertThat(rotated.getUsername()).isEqualTo("alice");
+        assertThat(rotated.getRoles()).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void changedRolesRevokeTheFamily() {
+        String token = service.issue("alice", List.of("ROLE_ADMIN"));
+        RefreshTokenEntity entity = lastSaved();
+
+        assertThatThrownBy(() -> service.rotate(token)).isInstanceOf(InvalidRefreshTokenException.class);
+        verify(repository).revokeFamily(entity.getFamilyId());
+        verify(repository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void goneOrDisabledUsersRevokeTheFamily() {
+        String aliceToken = service.issue("alice", List.of("ROLE_USER"));
+        RefreshTokenEntity alice = lastSaved();
+        String bobToken = service.issue("bob", List.of("ROLE_USER"));
+        RefreshTokenEntity bob = lastSaved();
+        users.remove("alice");
+        users.put("bob", User.withUsername("bob").password("").roles("USER").disabled(true).build());
+
+        assertThatThrownBy(() -> service.rotate(aliceToken)).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> service.rotate(bobToken)).isInstanceOf(InvalidRefreshTokenException.class);
+        verify(repository).revokeFamily(alice.getFamilyId());
+        verify(repository).revokeFamily(bob.getFamilyId());
+    }
+
+    @Test
+    void unavailableUserServiceLeavesTheTokenUnspent() {
+        String token = service.issue("alice", List.of("ROLE_USER"));
+        users.put("alice", null);
+
+        assertThatThrownBy(() -> service.rotate(token)).isInstanceOf(UserServiceUnavailableException.class);
+        verify(repository, never()).markUsed(any(), any());
+        verify(repository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void reuseRevokesTheFamily() {
+        String token = service.issue("alice", List.of("ROLE_USER"));
+        RefreshTokenEntity entity = lastSaved();
+        when(repository.markUsed(any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.rotate(token))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("already used");
+        verify(repository).revokeFamily(entity.getFamilyId());
+    }
+
+    private UserDetails loadUser(String username) {
+        if (!users.containsKey(username)) {
+            throw new UsernameNotFoundException(username);
+        }
+        UserDetails user = users.get(username);
+        if (user == null) {
+            throw new UserServiceUnavailableException("down", Duration.ofSeconds(1), null);
+        }
+        return user;
+    }
+
+    private RefreshTokenEntity lastSaved() {
+        ArgumentCaptor<RefreshTokenEntity> saved = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(repository, atLeastOnce()).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.fishwagon.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling  // ✅ Background JWKS refresh
 public class GatewayServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,59 @@
+package com.fishwagon.gateway.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Backend response captured by the ResponseCache filter, kept until its ttl
+ * (derived from Cache-Control) runs out.
+ */
+final class CachedResponse {
+
+    // Rough per-entry cost of the key, headers and bookkeeping, added to the body size
+    private static final int OVERHEAD_BYTES = 512;
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Instant storedAt;
+    private final Duration ttl;
+
+    CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, Instant storedAt, Duration ttl) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedAt = storedAt;
+        this.ttl = ttl;
+    }
+
+    HttpStatusCode getStatus() {
+        return status;
+    }
+
+    HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    Instant getStoredAt() {
+        return storedAt;
+    }
+
+    Duration getTtl() {
+        return ttl;
+    }
+
+    String getEtag() {
+        return headers.getETag();
+    }
+
+    int weight() {
+        return body.length + OVERHEAD_BYTES;
+    }
+}
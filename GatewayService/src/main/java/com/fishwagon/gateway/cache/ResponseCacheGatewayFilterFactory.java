@@ -0,0 +1,312 @@
+package com.fishwagon.gateway.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared response cache for idempotent public GETs, enabled per route:
+ *
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       default-ttl: 0s    # used when the backend sends no Cache-Control (0 = do not cache)
+ *       max-ttl: 10m       # upper bound on whatever the backend asks for
+ * </pre>
+ *
+ * Only 200 responses with a Content-Length that the backend marks as shareable
+ * (no private / no-store / no-cache, no Set-Cookie, no Vary beyond
+ * Accept-Encoding and CORS) are stored, for s-maxage or max-age. Concurrent misses for
+ * the same URI wait for the one request already in flight instead of each
+ * reaching the backend. Requests carrying a matching If-None-Match get a 304
+ * from the cache; requests with an Authorization header are never cached.
+ * A client's Cache-Control/Pragma no-cache is ignored: the entry is shared, so
+ * one client must not be able to send every request to the backend or replace
+ * what everyone else is served. Lookups are counted in
+ * gateway.response.cache{result=hit|collapsed|miss}.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    // Vary values that do not split the cache: the gateway's CORS handling adds the last three to every response
+    private static final Set<String> IGNORED_VARY = Set.of("accept-encoding", "origin",
+            "access-control-request-method", "access-control-request-headers");
+
+    private final AsyncCache<String, CachedResponse> cache;
+    private final long maxEntryBytes;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.maxEntryBytes = properties.getMaxEntrySize().toBytes();
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .<String, CachedResponse>weigher((key, response) -> response.weight() + key.length())
+                .expireAfter(new UntilTtl())
+                .buildAsync();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must wrap the response before NettyWriteResponseFilter (order -1) captures it
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return chain.filter(exchange);
+            }
+            String key = request.getURI().getRawPath()
+                    + (request.getURI().getRawQuery() == null ? "" : "?" + request.getURI().getRawQuery());
+
+            CompletableFuture<CachedResponse> promise = new CompletableFuture<>();
+            CompletableFuture<CachedResponse> existing = cache.asMap().putIfAbsent(key, promise);
+            if (existing == null) {
+                count("miss");
+                return fetch(exchange, chain, config, promise);
+            }
+            count(existing.isDone() ? "hit" : "collapsed");
+            // suppressCancel: a client going away must not cancel the response others wait on
+            return Mono.fromFuture(existing, true)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorReturn(Optional.empty())
+                    .flatMap(cached -> cached.isPresent()
+                            ? serve(exchange, cached.get())
+                            // The request we waited on turned out uncacheable: go to the backend ourselves
+                            : chain.filter(exchange));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * Forwards the request and captures the response body while writing it to the client.
+     * Completes the promise with the response if it may be stored, with null otherwise
+     * (which also removes the pending entry).
+     */
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+            CompletableFuture<CachedResponse> promise) {
+        List<String> clientIfNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        // The cache needs the full body, so conditional headers are answered here, not by the backend
+        ServerHttpRequest unconditional = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.IF_NONE_MATCH);
+                    headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                })
+                .build();
+
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                Duration ttl = storableFor(config, getStatusCode() == null ? 0 : getStatusCode().value(), getHeaders());
+                long length = getHeaders().getContentLength();
+                if (ttl.isZero() || length < 0 || length > maxEntryBytes) {
+                    promise.complete(null);
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+
+                    CachedResponse response = new CachedResponse(getStatusCode(), storedHeaders(getHeaders()),
+                            bytes, Instant.now(), ttl);
+                    promise.complete(response);
+                    if (etagMatches(clientIfNoneMatch, response.getEtag())) {
+                        return notModified(getDelegate(), response);
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                // Streaming responses are never cached
+                promise.complete(null);
+                return super.writeAndFlushWith(body);
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(unconditional).response(capturing).build())
+                // Errors, empty bodies and cancellations: release anyone waiting on this request
+                .doFinally(signal -> promise.complete(null));
+    }
+
+    // CORS headers are computed per request by the gateway, so they are not replayed from the cache
+    private static HttpHeaders storedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (!name.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length())
+                    && !name.equalsIgnoreCase(HttpHeaders.VARY)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (etagMatches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getEtag())) {
+            return notModified(response, cached);
+        }
+        response.setStatusCode(cached.getStatus());
+        response.getHeaders().putAll(cached.getHeaders());
+        response.getHeaders().set(HttpHeaders.AGE,
+                String.valueOf(Duration.between(cached.getStoredAt(), Instant.now()).toSeconds()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response, CachedResponse cached) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        response.getHeaders().setETag(cached.getEtag());
+        String cacheControl = cached.getHeaders().getCacheControl();
+        if (cacheControl != null) {
+            response.getHeaders().setCacheControl(cacheControl);
+        }
+        return response.setComplete();
+    }
+
+    /**
+     * How long a backend response may be kept in this shared cache; zero if not at all.
+     */
+    static Duration storableFor(Config config, int status, HttpHeaders headers) {
+        if (status != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return Duration.ZERO;
+        }
+        for (String vary : headers.getVary()) {
+            if (!IGNORED_VARY.contains(vary.toLowerCase(Locale.ROOT))) {
+                return Duration.ZERO;
+            }
+        }
+
+        Duration ttl = config.getDefaultTtl();
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            Long maxAge = null;
+            Long sharedMaxAge = null;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                String d = directive.trim();
+                if (d.equals("no-store") || d.equals("private") || d.equals("no-cache")) {
+                    return Duration.ZERO;
+                }
+                if (d.startsWith("s-maxage=")) {
+                    sharedMaxAge = seconds(d.substring("s-maxage=".length()));
+                } else if (d.startsWith("max-age=")) {
+                    maxAge = seconds(d.substring("max-age=".length()));
+                }
+            }
+            Long seconds = sharedMaxAge != null ? sharedMaxAge : maxAge;
+            if (seconds != null) {
+                ttl = Duration.ofSeconds(seconds);
+            }
+        }
+        if (ttl.isNegative()) {
+            return Duration.ZERO;
+        }
+        return ttl.compareTo(config.getMaxTtl()) > 0 ? config.getMaxTtl() : ttl;
+    }
+
+    private static Long seconds(String value) {
+        try {
+            return Long.parseLong(value.trim().replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        if (etag == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            String c = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (c.equals("*") || c.equals(strong)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("gateway.response.cache", "result", result).increment();
+    }
+
+    /**
+     * Evicts each entry when the freshness lifetime it was stored with runs out.
+     */
+    private static final class UntilTtl implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return value.getTtl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            // Also called when an in-flight response completes
+            return value.getTtl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    public static class Config {
+
+        // Freshness when the backend sends no max-age; zero leaves such responses uncached
+        private Duration defaultTtl = Duration.ZERO;
+
+        // Cap on the backend's max-age
+        private Duration maxTtl = Duration.ofMinutes(10);
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public Duration getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+    }
+}
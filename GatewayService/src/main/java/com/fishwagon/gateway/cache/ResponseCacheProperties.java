@@ -0,0 +1,35 @@
+package com.fishwagon.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Memory bounds of the gateway response cache shared by all ResponseCache routes.
+ */
+@Component
+@ConfigurationProperties(prefix = "response-cache")  // Maps to response-cache.* in application.yml
+public class ResponseCacheProperties {
+
+    // Total size of cached bodies (plus a small per-entry overhead); least recently used go first
+    private DataSize maxSize = DataSize.ofMegabytes(16);
+
+    // Responses larger than this (or without Content-Length) are passed through uncached
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+}
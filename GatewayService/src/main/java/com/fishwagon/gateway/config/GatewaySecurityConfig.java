@@ -10,6 +10,11 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import com.fishwagon.gateway.metrics.AuthMetrics;
+import com.fishwagon.gateway.policy.RoutePolicyAuthorizationManager;
+import com.fishwagon.gateway.policy.RoutePolicyMatcher;
+import com.fishwagon.gateway.revocation.RevocationList;
+
 import java.util.Arrays;
 
 @Configuration
@@ -17,9 +22,15 @@ import java.util.Arrays;
 public class GatewaySecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RoutePolicyAuthorizationManager routePolicyAuthorizationManager;
 
-    public GatewaySecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
-        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    public GatewaySecurityConfig(VerifiedTokenCache verifiedTokenCache, JwksKeyCache jwksKeyCache,
+            RevocationList revocationList, RoutePolicyMatcher routePolicyMatcher, AuthMetrics authMetrics,
+            RoutePolicyAuthorizationManager routePolicyAuthorizationManager) {
+        // ✅ Built here, not a bean: a WebFilter bean would also run outside the security chain
+        this.jwtAuthenticationFilter = new JwtAuthenticationFilter(verifiedTokenCache, jwksKeyCache, revocationList,
+                routePolicyMatcher, authMetrics);
+        this.routePolicyAuthorizationManager = routePolicyAuthorizationManager;
     }
 
     @Bean
@@ -27,15 +38,9 @@ public class GatewaySecurityConfig {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(corsSpec -> corsSpec.configurationSource(corsConfigurationSource()))
+                // ✅ Public, role and deny rules all come from the route-policy table in application.yml
                 .authorizeExchange(exchanges -> exchanges
-                        // Public endpoints that don't require authentication
-                        .pathMatchers("/auth/public/**", "/users/public/**", "/.well-known/jwks.json").permitAll()
-                        // Admin-only routes
-                        .pathMatchers("/users/admin/**").hasAuthority("ROLE_ADMIN")
-                        // Manager routes (accessible by Admin and Manager)
-                        .pathMatchers("/users/manager/**").hasAnyAuthority("ROLE_ADMIN", "ROLE_MANAGER")
-                        // All other requests need authentication
-                        .anyExchange().authenticated()
+                        .anyExchange().access(routePolicyAuthorizationManager)
                 )
                 .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
                 .build();
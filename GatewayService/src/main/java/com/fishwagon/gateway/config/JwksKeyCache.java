@@ -0,0 +1,167 @@
+package com.fishwagon.gateway.config;
+
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory copy of the AuthenticationService JWKS, keyed by kid.
+ *
+ * Token verification only ever reads the current immutable map, so it never
+ * waits on the network. The map is replaced by a background refresh every
+ * jwt.jwks.refresh-interval (revalidated with If-None-Match), and on demand when
+ * a token names a kid we do not know yet, at most once per
+ * jwt.jwks.unknown-kid-min-interval. Concurrent refreshes share one fetch.
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final WebClient webClient;
+    private final JwtConfig.Jwks settings;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile String etag;
+
+    private final AtomicReference<Mono<Void>> inFlight = new AtomicReference<>();
+    private final AtomicLong lastUnknownKidRefresh = new AtomicLong();
+
+    public JwksKeyCache(WebClient.Builder webClientBuilder, JwtConfig jwtConfig) {
+        this.webClient = webClientBuilder.build();
+        this.settings = jwtConfig.getJwks();
+    }
+
+    /**
+     * @return the verification key for the kid, or null if the current key set does not contain it
+     */
+    public PublicKey getKey(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.jwks.refresh-interval:PT5M}", initialDelay = 0)
+    public void scheduledRefresh() {
+        refresh().block();  // Scheduler thread, never a Netty event loop
+    }
+
+    /**
+     * Refetches the key set after a token with an unknown kid was seen. Completes
+     * immediately without fetching if another unknown kid already triggered a
+     * refresh within the last jwt.jwks.unknown-kid-min-interval, so a flood of
+     * forged kids cannot turn into a flood of JWKS requests.
+     */
+    public Mono<Void> refreshForUnknownKid() {
+        long now = System.nanoTime();
+        long last = lastUnknownKidRefresh.get();
+        if (last != 0 && now - last < settings.getUnknownKidMinInterval().toNanos()) {
+            Mono<Void> current = inFlight.get();
+            return current != null ? current : Mono.empty();
+        }
+        if (!lastUnknownKidRefresh.compareAndSet(last, now)) {
+            Mono<Void> current = inFlight.get();
+            return current != null ? current : Mono.empty();
+        }
+        return refresh();
+    }
+
+    /**
+     * Fetches the key set, joining a fetch that is already running. Never fails:
+     * on error the previous keys are kept and a warning is logged.
+     */
+    public Mono<Void> refresh() {
+        Mono<Void> current = inFlight.get();
+        if (current != null) {
+            return current;
+        }
+        AtomicReference<Mono<Void>> self = new AtomicReference<>();
+        Mono<Void> fetch = fetch()
+                .doFinally(signal -> inFlight.compareAndSet(self.get(), null))
+                .cache();
+        self.set(fetch);
+        if (inFlight.compareAndSet(null, fetch)) {
+            return fetch;
+        }
+        current = inFlight.get();
+        return current != null ? current : Mono.empty();
+    }
+
+    private Mono<Void> fetch() {
+        return webClient.get()
+                .uri(settings.getUri())
+                .headers(headers -> {
+                    String known = etag;
+                    if (known != null && !keys.isEmpty()) {
+                        headers.setIfNoneMatch(known);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return Mono.empty();
+                    }
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    String responseEtag = response.headers().asHttpHeaders().getFirst(HttpHeaders.ETAG);
+                    return response.bodyToMono(String.class)
+                            .doOnNext(body -> update(body, responseEtag));
+                })
+                .timeout(settings.getTimeout())
+                .onErrorResume(e -> {
+                    logger.warn("JWKS refresh from {} failed, keeping {} cached keys: {}",
+                            settings.getUri(), keys.size(), e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void update(String body, String responseEtag) {
+        try {
+            setKeys(JWKSet.parse(body));
+        } catch (ParseException e) {
+            logger.warn("Ignoring unparseable JWKS from {}: {}", settings.getUri(), e.getMessage());
+            return;
+        }
+        etag = responseEtag;
+    }
+
+    /**
+     * Replaces the cached keys with the RSA signature keys of the given set.
+     */
+    public void setKeys(JWKSet jwkSet) {
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            // Only RSA signature keys with a kid can verify our tokens
+            if (jwk instanceof RSAKey rsaKey && jwk.getKeyID() != null
+                    && (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                try {
+                    loaded.put(jwk.getKeyID(), rsaKey.toRSAPublicKey());
+                } catch (JOSEException e) {
+                    logger.warn("Skipping unusable JWKS key {}: {}", jwk.getKeyID(), e.getMessage());
+                }
+            }
+        }
+        if (!loaded.keySet().equals(keys.keySet())) {
+            logger.info("JWKS loaded with key ids {}", loaded.keySet());
+        }
+        keys = Map.copyOf(loaded);
+    }
+}
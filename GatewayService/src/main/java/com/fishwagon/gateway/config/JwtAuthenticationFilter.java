@@ -1,88 +1,137 @@
 package com.fishwagon.gateway.config;
 
-import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+
+import com.fishwagon.gateway.metrics.AuthMetrics;
+import com.fishwagon.gateway.policy.RoutePolicy;
+import com.fishwagon.gateway.policy.RoutePolicyMatcher;
+import com.fishwagon.gateway.revocation.RevocationList;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SecurityException;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
-@Component
+// Not a bean: GatewaySecurityConfig builds it for the security chain, so it is not also registered as a plain WebFilter
 public class JwtAuthenticationFilter implements WebFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
-    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwksKeyCache jwksKeyCache;
+    private final RevocationList revocationList;
+    private final RoutePolicyMatcher routePolicyMatcher;
+    private final AuthMetrics authMetrics;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, JwksKeyCache jwksKeyCache,
+            RevocationList revocationList, RoutePolicyMatcher routePolicyMatcher, AuthMetrics authMetrics) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.jwksKeyCache = jwksKeyCache;
+        this.revocationList = revocationList;
+        this.routePolicyMatcher = routePolicyMatcher;
+        this.authMetrics = authMetrics;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
+        AuthMetrics.Sample sample = authMetrics.start();
         
-        // Skip authentication for public endpoints
-        if (path.startsWith("/auth/public/") || path.startsWith("/users/public/") || path.equals("/.well-known/jwks.json")) {
-            logger.debug("Skipping authentication for public path: {}", path);
-            return chain.filter(exchange);
+        // Skip authentication where the route policy makes the token irrelevant (public or denied paths)
+        RoutePolicy.Access access = routePolicyMatcher.resolve(exchange).getAccess();
+        if (access == RoutePolicy.Access.PUBLIC || access == RoutePolicy.Access.DENY) {
+            logger.debug("Skipping authentication for {} path: {}", access, path);
+            return proceed(exchange, chain, sample, AuthMetrics.Outcome.SKIPPED);
         }
 
         // Extract token from Authorization header
         String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             logger.warn("Missing or invalid Authorization header for path: {}", path);
-            return chain.filter(exchange);
+            return proceed(exchange, chain, sample, AuthMetrics.Outcome.ANONYMOUS);
         }
 
         String token = authHeader.substring(7);
-        try {
-            // Extract username and validate token
-            String username = jwtUtil.extractUsername(token);
-            if (username != null) {
-                // Extract roles from token
-                Claims claims = jwtUtil.extractAllClaims(token);
-                List<String> roles = claims.get("roles", List.class);
-                
-                if (roles == null || roles.isEmpty()) {
-                    logger.warn("No roles found in token for user: {}", username);
-                    return chain.filter(exchange);
-                }
-                
-                // Convert roles to authorities
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(role -> {
-                            // Ensure role has ROLE_ prefix for Spring Security
-                            String normalizedRole = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-                            return new SimpleGrantedAuthority(normalizedRole);
-                        })
-                        .collect(Collectors.toList());
-                
-                // Create authentication object
-                Authentication authentication = new UsernamePasswordAuthenticationToken(
-                        username, null, authorities);
-                
-                logger.debug("User authenticated: {} with roles: {}", username, roles);
-                
-                // Set authentication in security context
-                return chain.filter(exchange)
-                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
-            }
-        } catch (Exception e) {
-            logger.error("JWT authentication failed: {}", e.getMessage());
+        // Verify the token once; repeat requests with the same token are served from the cache
+        return verify(token, sample)
+                // ✅ Key may have just rotated: refresh the JWKS (rate-limited, shared) and try once more
+                .onErrorResume(UnknownSigningKeyException.class, e -> jwksKeyCache.refreshForUnknownKid()
+                        .then(verify(token, sample)))
+                .onErrorResume(e -> {
+                    logger.error("JWT authentication failed: {}", e.getMessage());
+                    authMetrics.failed(sample, failureReason(e));
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(verified -> {
+                    if (verified.isEmpty()) {
+                        if (sample.getOutcome() != AuthMetrics.Outcome.REJECTED) {
+                            authMetrics.failed(sample, AuthMetrics.FailureReason.NO_SUBJECT);
+                        }
+                        return proceed(exchange, chain, sample, AuthMetrics.Outcome.REJECTED);
+                    }
+                    VerifiedPrincipal principal = verified.get();
+                    String username = principal.getUsername();
+
+                    // Checked on every request, cache hit or not: logout must take effect immediately
+                    long revocationStart = System.nanoTime();
+                    boolean revoked = revocationList.isRevoked(principal);
+                    sample.stage(AuthMetrics.Stage.REVOCATION, revocationStart);
+                    if (revoked) {
+                        logger.warn("Revoked token presented for user: {}", username);
+                        authMetrics.failed(sample, AuthMetrics.FailureReason.REVOKED);
+                        return proceed(exchange, chain, sample, AuthMetrics.Outcome.REJECTED);
+                    }
+
+                    if (principal.getAuthorities().isEmpty()) {
+                        logger.warn("No roles found in token for user: {}", username);
+                        authMetrics.failed(sample, AuthMetrics.FailureReason.NO_ROLES);
+                        return proceed(exchange, chain, sample, AuthMetrics.Outcome.REJECTED);
+                    }
+
+                    // Create authentication object; the principal rides along for the gateway assertion's expiry
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            username, null, principal.getAuthorities());
+                    authentication.setDetails(principal);
+
+                    logger.debug("User authenticated: {} with roles: {}", username, principal.getAuthorities());
+
+                    // Set authentication in security context
+                    return proceed(exchange, chain, sample, AuthMetrics.Outcome.AUTHENTICATED)
+                            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+                });
+    }
+
+    // Stage timers are recorded once the exchange completes, when the matched route is known
+    private Mono<Void> proceed(ServerWebExchange exchange, WebFilterChain chain, AuthMetrics.Sample sample,
+            AuthMetrics.Outcome outcome) {
+        sample.finish(outcome);
+        return chain.filter(exchange).doFinally(signal -> authMetrics.record(sample, exchange));
+    }
+
+    private static AuthMetrics.FailureReason failureReason(Throwable e) {
+        if (e instanceof ExpiredJwtException) {
+            return AuthMetrics.FailureReason.EXPIRED;
         }
-        
-        return chain.filter(exchange);
+        if (e instanceof UnknownSigningKeyException) {
+            return AuthMetrics.FailureReason.UNKNOWN_KEY;
+        }
+        if (e instanceof SecurityException) {
+            return AuthMetrics.FailureReason.BAD_SIGNATURE;
+        }
+        return AuthMetrics.FailureReason.MALFORMED;
+    }
+
+    // Pure CPU work against the cached key set, so it runs inline on the event loop
+    private Mono<Optional<VerifiedPrincipal>> verify(String token, AuthMetrics.Sample sample) {
+        return Mono.fromCallable(() -> Optional.ofNullable(verifiedTokenCache.getOrVerify(token, sample)));
     }
 }
\ No newline at end of file
@@ -1,19 +1,90 @@
 package com.fishwagon.gateway.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 @Component
-@ConfigurationProperties(prefix = "jwt")  // Maps to jwt.secret in application.yml
+@ConfigurationProperties(prefix = "jwt")  // Maps to jwt.* in application.yml
 public class JwtConfig {
 
-    private String secret;
+    // Maps to jwt.cache.* in application.yml
+    private final Cache cache = new Cache();
+
+    // Maps to jwt.jwks.* in application.yml
+    private final Jwks jwks = new Jwks();
+
+    public Cache getCache() {
+        return cache;
+    }
 
-    public String getSecret() {
-        return secret;
+    public Jwks getJwks() {
+        return jwks;
     }
 
-    public void setSecret(String secret) {
-        this.secret = secret;
+    /**
+     * Settings for the verified-token cache used by JwtAuthenticationFilter.
+     */
+    public static class Cache {
+
+        // Upper bound on the number of distinct tokens kept in memory
+        private long maxSize = 10_000;
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Where the gateway fetches the AuthenticationService public keys from, and how often.
+     */
+    public static class Jwks {
+
+        private String uri = "http://localhost:8081/.well-known/jwks.json";
+
+        // Background refresh period; keys are never fetched on the request path
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        // A token with an unknown kid triggers at most one extra fetch per interval
+        private Duration unknownKidMinInterval = Duration.ofSeconds(30);
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        public String getUri() {
+            return uri;
+        }
+
+        public void setUri(String uri) {
+            this.uri = uri;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getUnknownKidMinInterval() {
+            return unknownKidMinInterval;
+        }
+
+        public void setUnknownKidMinInterval(Duration unknownKidMinInterval) {
+            this.unknownKidMinInterval = unknownKidMinInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,30 +2,57 @@ package com.fishwagon.gateway.config;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SecurityException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.PublicKey;
 import java.util.Date;
 
+import com.fishwagon.common.jwt.VerifiedToken;
+
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
     
-    // Secret key for JWT validation (must match other services)
-    private static final String SECRET_KEY = "your-secret-key-must-be-long-enough";
-    
-    // Generate key from secret
-    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    // Parser is immutable and thread-safe, so it is built once and shared by all requests.
+    // RS256 public keys come from the cached JWKS, selected by the token's kid header.
+    private final JwtParser jwtParser;
+
+    public JwtUtil(JwksKeyCache jwksKeyCache) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        PublicKey key = jwksKeyCache.getKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnknownSigningKeyException(header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verify the JWT token once and return its subject, roles and expiry
+     *
+     * @param token JWT token
+     * @return typed view of the verified token
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.fromClaims(extractAllClaims(token));
+    }
 
     /**
      * Extract username from JWT token
@@ -55,11 +82,10 @@ public class JwtUtil {
      */
     public Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(SIGNING_KEY)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseClaimsJws(token).getBody();
+        } catch (UnknownSigningKeyException e) {
+            logger.debug("JWT signed with unknown key: {}", e.getMessage());
+            throw e;
         } catch (ExpiredJwtException e) {
             logger.warn("JWT token expired: {}", e.getMessage());
             throw e;
@@ -102,8 +128,8 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            final String extractedUsername = extractUsername(token);
-            return (extractedUsername.equals(username) && !isTokenExpired(token));
+            final VerifiedToken verified = verify(token);
+            return (verified.getSubject().equals(username) && !verified.isExpired());
         } catch (Exception e) {
             logger.error("Token validation failed: {}", e.getMessage());
             return false;
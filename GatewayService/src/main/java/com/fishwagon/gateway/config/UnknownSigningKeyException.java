@@ -0,0 +1,21 @@
+package com.fishwagon.gateway.config;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Thrown when a token names a kid that is not in the cached JWKS. The caller
+ * may refresh the key set and verify once more; the key may have just rotated.
+ */
+public class UnknownSigningKeyException extends JwtException {
+
+    private final String keyId;
+
+    public UnknownSigningKeyException(String keyId) {
+        super("No JWKS key for kid " + keyId);
+        this.keyId = keyId;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+}
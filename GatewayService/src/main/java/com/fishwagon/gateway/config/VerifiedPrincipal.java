@@ -0,0 +1,50 @@
+package com.fishwagon.gateway.config;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Immutable result of a successful token verification: the subject,
+ * its granted authorities (already normalized to the ROLE_ prefix)
+ * the instant the token stops being valid, and the jti and issue time
+ * that revocation checks need.
+ */
+public final class VerifiedPrincipal {
+
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final Instant expiresAt;
+    private final String tokenId;
+    private final Instant issuedAt;
+
+    public VerifiedPrincipal(String username, List<GrantedAuthority> authorities, Instant expiresAt,
+            String tokenId, Instant issuedAt) {
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fishwagon.gateway.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.fishwagon.common.jwt.VerifiedToken;
+import com.fishwagon.gateway.metrics.AuthMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of tokens that already passed signature verification.
+ *
+ * Entries are keyed by a SHA-256 digest of the raw token (the token itself is
+ * never retained) and expire at the token's own expiration time, so a repeat
+ * request with the same bearer token skips the RSA signature check and JSON parsing.
+ * Hit/miss statistics are published to the actuator as cache.* metrics.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "gateway.verified-tokens";
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedPrincipal> cache;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil, JwtConfig jwtConfig, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getCache().getMaxSize())
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the principal for the given token, verifying it only on a cache miss.
+     *
+     * @param token raw JWT (without the "Bearer " prefix)
+     * @return the verified principal, or null if the token carries no subject
+     * @throws io.jsonwebtoken.JwtException if the token fails verification
+     */
+    public VerifiedPrincipal getOrVerify(String token) {
+        return getOrVerify(token, null);
+    }
+
+    /**
+     * Same as {@link #getOrVerify(String)}, timing each verification stage into the sample.
+     */
+    public VerifiedPrincipal getOrVerify(String token, AuthMetrics.Sample sample) {
+        long start = System.nanoTime();
+        VerifiedPrincipal principal = cache.get(digest(token), key -> verify(token, sample));
+        if (sample != null) {
+            sample.stage(AuthMetrics.Stage.TOKEN, start);
+        }
+        return principal;
+    }
+
+    private VerifiedPrincipal verify(String token, AuthMetrics.Sample sample) {
+        long start = System.nanoTime();
+        Claims claims = jwtUtil.extractAllClaims(token);
+        if (sample != null) {
+            sample.stage(AuthMetrics.Stage.PARSE, start);
+            start = System.nanoTime();
+        }
+        VerifiedToken verified = VerifiedToken.fromClaims(claims);
+        if (sample != null) {
+            sample.stage(AuthMetrics.Stage.CLAIMS, start);
+        }
+        if (verified.getSubject() == null) {
+            return null;
+        }
+
+        start = System.nanoTime();
+        List<GrantedAuthority> authorities = verified.getRoles().stream()
+                // Ensure role has ROLE_ prefix for Spring Security
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        if (sample != null) {
+            sample.stage(AuthMetrics.Stage.AUTHORITIES, start);
+        }
+
+        return new VerifiedPrincipal(verified.getSubject(), authorities,
+                verified.getExpiresAt() == null ? Instant.now() : verified.getExpiresAt(),
+                verified.getTokenId(), verified.getIssuedAt());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Evicts each entry at the moment its token expires. Tokens without an
+     * expiration are treated as already expired and never retained.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedPrincipal value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.fishwagon.gateway.metrics;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Stage timers and failure counters for JwtAuthenticationFilter.
+ *
+ * Each request carries a {@link Sample} that only stores System.nanoTime
+ * deltas. The sample is recorded once the exchange completes, because only
+ * then is the matched route known. Timers are published as
+ * gateway.auth.stage{stage,route,outcome}; histogram buckets come from
+ * management.metrics.distribution in application.yml. The Timer objects are
+ * cached per route, so recording does no meter registry lookups.
+ * Rejected tokens also count in gateway.auth.failures{reason}.
+ */
+@Component
+public class AuthMetrics {
+
+    static final String UNROUTED = "none";  // Answered before routing (401/403) or no route matched
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicReferenceArray<Timer>> timersByRoute = new ConcurrentHashMap<>();
+    private final Map<FailureReason, Counter> failures = new EnumMap<>(FailureReason.class);
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (FailureReason reason : FailureReason.values()) {
+            failures.put(reason, Counter.builder("gateway.auth.failures")
+                    .description("Bearer tokens rejected by the gateway, by reason")
+                    .tag("reason", reason.tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    public Sample start() {
+        return new Sample(System.nanoTime());
+    }
+
+    public void failed(Sample sample, FailureReason reason) {
+        sample.outcome = Outcome.REJECTED;
+        failures.get(reason).increment();
+    }
+
+    /**
+     * Records every stage the sample went through, tagged with the route the exchange was sent to.
+     */
+    public void record(Sample sample, ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        record(sample, route == null ? UNROUTED : route.getId());
+    }
+
+    public void record(Sample sample, String routeId) {
+        AtomicReferenceArray<Timer> timers = timersByRoute.computeIfAbsent(
+                routeId, id -> new AtomicReferenceArray<>(STAGES.length * OUTCOMES.length));
+        Outcome outcome = sample.outcome;
+        for (Stage stage : STAGES) {
+            long nanos = sample.stageNanos[stage.ordinal()];
+            if (nanos >= 0) {
+                timer(timers, routeId, stage, outcome).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer timer(AtomicReferenceArray<Timer> timers, String routeId, Stage stage, Outcome outcome) {
+        int index = stage.ordinal() * OUTCOMES.length + outcome.ordinal();
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            // Registering twice from racing requests returns the same meter
+            timer = Timer.builder("gateway.auth.stage")
+                    .description("Time spent in each stage of gateway token authentication")
+                    .tag("stage", stage.tag)
+                    .tag("route", routeId)
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry);
+            timers.set(index, timer);
+        }
+        return timer;
+    }
+
+    public enum Stage {
+        FILTER("filter"),            // Everything the filter does before handing the request on
+        TOKEN("token"),              // Verified-token cache lookup, including the work below on a miss
+        PARSE("parse"),              // Signature check and JSON parsing (cache miss only)
+        CLAIMS("claims"),            // Subject, roles and expiry extracted from the claims
+        AUTHORITIES("authorities"),  // Roles mapped to granted authorities
+        REVOCATION("revocation");    // Revocation list check
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Outcome {
+        AUTHENTICATED("authenticated"),
+        ANONYMOUS("anonymous"),  // No bearer token
+        SKIPPED("skipped"),      // Public or denied path, token not looked at
+        REJECTED("rejected");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum FailureReason {
+        EXPIRED("expired"),
+        BAD_SIGNATURE("bad_signature"),
+        UNKNOWN_KEY("unknown_key"),
+        MALFORMED("malformed"),
+        NO_SUBJECT("no_subject"),
+        NO_ROLES("no_roles"),
+        REVOKED("revoked");
+
+        private final String tag;
+
+        FailureReason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Per-request stage durations. Stages a request never reached stay at -1 and are not recorded.
+     */
+    public static final class Sample {
+
+        private final long startNanos;
+        private final long[] stageNanos = new long[STAGES.length];
+        private Outcome outcome = Outcome.ANONYMOUS;
+
+        private Sample(long startNanos) {
+            this.startNanos = startNanos;
+            Arrays.fill(stageNanos, -1);
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @param since System.nanoTime() taken when the stage began
+         */
+        public void stage(Stage stage, long since) {
+            stageNanos[stage.ordinal()] = System.nanoTime() - since;
+        }
+
+        /**
+         * Ends the filter stage. A rejection recorded earlier wins over the given outcome.
+         */
+        public void finish(Outcome outcome) {
+            if (this.outcome != Outcome.REJECTED) {
+                this.outcome = outcome;
+            }
+            stage(Stage.FILTER, startNanos);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.fishwagon.gateway.policy;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fishwagon.common.assertion.GatewayAssertion;
+import com.fishwagon.common.assertion.GatewayAssertionCodec;
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.gateway.config.VerifiedPrincipal;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Forwards the route-policy decision, and the identity verified by
+ * JwtAuthenticationFilter, to the backends in a signed header.
+ *
+ * The assertion (see {@link GatewayAssertion}) is bound to the request's
+ * method and raw path, and signed with the {@link GatewayAssertionCodec} the
+ * backends verify with, so a backend checks one MAC instead of re-verifying
+ * the JWT. exp is at most gateway-assertion.ttl away and never past the
+ * token's own expiry. Whatever a client sent under the same header name is
+ * discarded.
+ */
+@Component
+public class GatewayAssertionFilter implements GlobalFilter, Ordered {
+
+    private final RoutePolicyMatcher routePolicyMatcher;
+    private final GatewayAssertionCodec codec;
+    private final GatewayAssertionProperties properties;
+
+    public GatewayAssertionFilter(RoutePolicyMatcher routePolicyMatcher, GatewayAssertionCodec codec,
+            GatewayAssertionProperties properties) {
+        this.routePolicyMatcher = routePolicyMatcher;
+        this.codec = codec;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RoutePolicy policy = routePolicyMatcher.resolve(exchange);
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> Optional.ofNullable(context.getAuthentication()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> {
+                    String assertion = codec.sign(assertion(exchange.getRequest(), policy,
+                            authentication.orElse(null), System.currentTimeMillis() / 1000));
+                    ServerWebExchange signed = exchange.mutate()
+                            .request(request -> request.headers(
+                                    headers -> headers.set(properties.getHeader(), assertion)))
+                            .build();
+                    return chain.filter(signed);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;  // Before any route filter could read the client's copy
+    }
+
+    private GatewayAssertion assertion(ServerHttpRequest request, RoutePolicy policy, Authentication authentication,
+            long nowSeconds) {
+        long expiresAt = nowSeconds + properties.getTtl().toSeconds();
+        String method = request.getMethod().name();
+        String path = request.getPath().value();  // Raw, as the backend's getRequestURI() will see it
+        if (authentication == null || !(authentication.getDetails() instanceof VerifiedPrincipal principal)) {
+            return GatewayAssertion.forRequest(expiresAt, method, path, policy.getPattern(),
+                    policy.getAccess().name(), null, List.of());
+        }
+        Instant tokenExpiresAt = principal.getExpiresAt();
+        if (tokenExpiresAt != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiresAt.getEpochSecond());
+        }
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        return GatewayAssertion.forRequest(expiresAt, method, path, policy.getPattern(), policy.getAccess().name(),
+                authentication.getName(), roles);
+    }
+}
@@ -0,0 +1,48 @@
+package com.fishwagon.gateway.policy;
+
+import java.util.Set;
+
+/**
+ * Access decision for a request path: the compiled form of one route-policy rule.
+ */
+public final class RoutePolicy {
+
+    public enum Access {
+        PUBLIC,         // no token needed
+        AUTHENTICATED,  // any valid token
+        ROLES,          // a valid token carrying one of the roles
+        DENY            // never reachable through the gateway
+    }
+
+    // Applied to paths with dot segments or encoded separators, which could be re-interpreted downstream
+    static final RoutePolicy NON_NORMALIZED = new RoutePolicy("<non-normalized>", Access.DENY, Set.of());
+
+    private final String pattern;
+    private final Access access;
+    private final Set<String> roles;
+
+    RoutePolicy(String pattern, Access access, Set<String> roles) {
+        this.pattern = pattern;
+        this.access = access;
+        this.roles = Set.copyOf(roles);
+    }
+
+    // The rule pattern that matched; identifies the decision in logs and in the assertion header
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    // Authorities (ROLE_ prefixed) accepted by a ROLES rule
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    @Override
+    public String toString() {
+        return pattern + " -> " + access + (roles.isEmpty() ? "" : " " + roles);
+    }
+}
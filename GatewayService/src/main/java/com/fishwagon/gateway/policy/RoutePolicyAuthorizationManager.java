@@ -0,0 +1,57 @@
+package com.fishwagon.gateway.policy;
+
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Authorizes every exchange from the route-policy decision, replacing per-path matchers.
+ */
+@Component
+public class RoutePolicyAuthorizationManager implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RoutePolicyMatcher routePolicyMatcher;
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    public RoutePolicyAuthorizationManager(RoutePolicyMatcher routePolicyMatcher) {
+        this.routePolicyMatcher = routePolicyMatcher;
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        RoutePolicy policy = routePolicyMatcher.resolve(context.getExchange());
+        return switch (policy.getAccess()) {
+            case PUBLIC -> Mono.just(GRANTED);
+            case DENY -> Mono.just(DENIED);
+            case AUTHENTICATED -> authentication
+                    .map(auth -> isAuthenticated(auth) ? GRANTED : DENIED)
+                    .defaultIfEmpty(DENIED);
+            case ROLES -> authentication
+                    .map(auth -> isAuthenticated(auth) && hasAnyRole(auth, policy) ? GRANTED : DENIED)
+                    .defaultIfEmpty(DENIED);
+        };
+    }
+
+    private boolean isAuthenticated(Authentication authentication) {
+        return !trustResolver.isAnonymous(authentication) && authentication.isAuthenticated();
+    }
+
+    private static boolean hasAnyRole(Authentication authentication, RoutePolicy policy) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (policy.getRoles().contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,169 @@
+package com.fishwagon.gateway.policy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * The route-policy table compiled into a trie of path segments.
+ *
+ * Built once at startup; a lookup walks the request path segment by segment,
+ * so its cost depends on the path depth, not on the number of rules. The
+ * decision is stored on the exchange, so the authentication filter, the
+ * authorization check and the assertion header all share one evaluation.
+ */
+@Component
+public class RoutePolicyMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutePolicyMatcher.class);
+
+    private static final String DECISION_ATTRIBUTE = RoutePolicyMatcher.class.getName() + ".decision";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Node root = new Node();
+    private final RoutePolicy defaultPolicy;
+
+    public RoutePolicyMatcher(RoutePolicyProperties properties) {
+        this.defaultPolicy = new RoutePolicy("<default>", properties.getDefaultAccess(), Set.of());
+        for (RoutePolicyProperties.Rule rule : properties.getRules()) {
+            add(compile(rule));
+        }
+        logger.info("Route policy compiled: {} rules, default {}", properties.getRules().size(),
+                properties.getDefaultAccess());
+    }
+
+    /**
+     * @return the policy for the exchange's path, evaluated on first use and then reused for the exchange
+     */
+    public RoutePolicy resolve(ServerWebExchange exchange) {
+        RoutePolicy decision = exchange.getAttribute(DECISION_ATTRIBUTE);
+        if (decision == null) {
+            decision = match(exchange.getRequest().getPath().value());
+            exchange.getAttributes().put(DECISION_ATTRIBUTE, decision);
+        }
+        return decision;
+    }
+
+    /**
+     * @param rawPath the path as received, still percent-encoded
+     */
+    public RoutePolicy match(String rawPath) {
+        List<String> segments = split(rawPath);
+        if (segments == null) {
+            return RoutePolicy.NON_NORMALIZED;
+        }
+        RoutePolicy policy = match(root, segments, 0);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    // Most specific first: literal segment, then *, then a ** remainder
+    private static RoutePolicy match(Node node, List<String> segments, int index) {
+        if (index == segments.size()) {
+            return node.exact != null ? node.exact : node.rest;
+        }
+        Node literal = node.literals.get(segments.get(index));
+        if (literal != null) {
+            RoutePolicy policy = match(literal, segments, index + 1);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        if (node.wildcard != null) {
+            RoutePolicy policy = match(node.wildcard, segments, index + 1);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return node.rest;
+    }
+
+    /**
+     * 🔒 Returns null for paths a backend could resolve differently than we do:
+     * dot segments, matrix parameters and encoded dots or separators.
+     */
+    private static List<String> split(String rawPath) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int length = rawPath.length();
+        while (start <= length) {
+            int end = rawPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {  // Empty segments (// or a trailing /) are collapsed
+                String segment = rawPath.substring(start, end);
+                if (segment.equals(".") || segment.equals("..") || segment.indexOf(';') >= 0
+                        || (segment.indexOf('%') >= 0 && hasEncodedSeparator(segment))) {
+                    return null;
+                }
+                segments.add(segment);
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static boolean hasEncodedSeparator(String segment) {
+        String lower = segment.toLowerCase(Locale.ROOT);
+        return lower.contains("%2e") || lower.contains("%2f") || lower.contains("%5c");
+    }
+
+    private void add(RoutePolicy policy) {
+        List<String> segments = split(policy.getPattern());
+        if (segments == null) {
+            throw new IllegalStateException("Invalid route-policy pattern: " + policy.getPattern());
+        }
+        Node node = root;
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.equals("**")) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalStateException("** must be the last segment: " + policy.getPattern());
+                }
+                if (node.rest != null) {
+                    throw new IllegalStateException("Duplicate route-policy pattern: " + policy.getPattern());
+                }
+                node.rest = policy;
+                return;
+            }
+            node = segment.equals("*")
+                    ? (node.wildcard != null ? node.wildcard : (node.wildcard = new Node()))
+                    : node.literals.computeIfAbsent(segment, s -> new Node());
+        }
+        if (node.exact != null) {
+            throw new IllegalStateException("Duplicate route-policy pattern: " + policy.getPattern());
+        }
+        node.exact = policy;
+    }
+
+    private static RoutePolicy compile(RoutePolicyProperties.Rule rule) {
+        if (rule.getPattern() == null || !rule.getPattern().startsWith("/")) {
+            throw new IllegalStateException("Route-policy pattern must start with /: " + rule.getPattern());
+        }
+        Set<String> roles = new LinkedHashSet<>();
+        for (String role : rule.getRoles()) {
+            roles.add(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+        }
+        if (rule.getAccess() == RoutePolicy.Access.ROLES && roles.isEmpty()) {
+            throw new IllegalStateException("Route-policy rule " + rule.getPattern() + " needs at least one role");
+        }
+        return new RoutePolicy(rule.getPattern(), rule.getAccess(), roles);
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node wildcard;     // *
+        private RoutePolicy exact; // pattern ends at this node
+        private RoutePolicy rest;  // ** below this node, including the node itself
+    }
+}
@@ -0,0 +1,74 @@
+package com.fishwagon.gateway.policy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * The route-policy table: which paths are public, which need a token and which need a role.
+ *
+ * Patterns are path segments where * matches one segment and a trailing **
+ * matches any remainder (including none). The most specific rule wins: a
+ * literal segment beats *, which beats **, regardless of declaration order.
+ */
+@Component
+@ConfigurationProperties(prefix = "route-policy")  // Maps to route-policy.* in application.yml
+public class RoutePolicyProperties {
+
+    // Applied when no rule matches
+    private RoutePolicy.Access defaultAccess = RoutePolicy.Access.AUTHENTICATED;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public RoutePolicy.Access getDefaultAccess() {
+        return defaultAccess;
+    }
+
+    public void setDefaultAccess(RoutePolicy.Access defaultAccess) {
+        this.defaultAccess = defaultAccess;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+
+        private String pattern;
+
+        private RoutePolicy.Access access = RoutePolicy.Access.AUTHENTICATED;
+
+        // For access: roles; with or without the ROLE_ prefix
+        private List<String> roles = new ArrayList<>();
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public RoutePolicy.Access getAccess() {
+            return access;
+        }
+
+        public void setAccess(RoutePolicy.Access access) {
+            this.access = access;
+        }
+
+        public List<String> getRoles() {
+            return roles;
+        }
+
+        public void setRoles(List<String> roles) {
+            this.roles = roles;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.fishwagon.gateway.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Lock-free, per-instance token buckets.
+ *
+ * Each bucket is an immutable (tokens, timestamp) pair behind an AtomicReference
+ * and is refilled lazily on access with a compare-and-set loop, so concurrent
+ * requests never block each other. Buckets live in a size-bounded Caffeine map
+ * and are dropped after rate-limit.idle-timeout without traffic.
+ */
+@Component
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public InMemoryTokenBucketStore(RateLimitProperties properties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, long capacity, double refillPerSecond) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, refillPerSecond));
+        return Mono.just(bucket.tryConsume(System.nanoTime()));
+    }
+
+    static final class TokenBucket {
+
+        private final long capacity;
+        private final double tokensPerNano;
+        private final AtomicReference<State> state;
+
+        TokenBucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerSecond / 1_000_000_000d;
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        RateLimitDecision tryConsume(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(capacity, current.tokens + Math.max(0, now - current.timestamp) * tokensPerNano);
+                if (tokens < 1) {
+                    // Nothing to take: leave the state alone, the refill is recomputed next time
+                    long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+                    return new RateLimitDecision(false, capacity, 0, Duration.ofNanos(waitNanos));
+                }
+                State next = new State(tokens - 1, now);
+                if (state.compareAndSet(current, next)) {
+                    return new RateLimitDecision(true, capacity, (long) next.tokens, Duration.ZERO);
+                }
+            }
+        }
+    }
+
+    private static final class State {
+
+        private final double tokens;
+        private final long timestamp;
+
+        private State(double tokens, long timestamp) {
+            this.tokens = tokens;
+            this.timestamp = timestamp;
+        }
+    }
+}
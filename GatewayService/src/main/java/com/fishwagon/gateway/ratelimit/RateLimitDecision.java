@@ -0,0 +1,38 @@
+package com.fishwagon.gateway.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one {@link TokenBucketStore#tryConsume} call.
+ */
+public final class RateLimitDecision {
+
+    private final boolean allowed;
+    private final long limit;
+    private final long remaining;
+    private final Duration retryAfter;
+
+    public RateLimitDecision(boolean allowed, long limit, long remaining, Duration retryAfter) {
+        this.allowed = allowed;
+        this.limit = limit;
+        this.remaining = remaining;
+        this.retryAfter = retryAfter;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    // Time until the next token is available; zero when allowed
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,37 @@
+package com.fishwagon.gateway.ratelimit;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory bucket store. Per-route limits are configured as
+ * TokenBucketRateLimiter filter args on each route instead.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")  // Maps to rate-limit.* in application.yml
+public class RateLimitProperties {
+
+    // Upper bound on tracked buckets, so a flood of distinct IPs/usernames cannot exhaust memory
+    private long maxBuckets = 100_000;
+
+    // A bucket untouched this long is dropped; by then it would have refilled anyway
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+}
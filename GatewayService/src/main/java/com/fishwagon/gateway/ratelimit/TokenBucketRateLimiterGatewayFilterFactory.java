@@ -0,0 +1,177 @@
+package com.fishwagon.gateway.ratelimit;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Token-bucket rate limiting per client IP or per login username, configured per route:
+ *
+ * <pre>
+ * filters:
+ *   - name: TokenBucketRateLimiter
+ *     args:
+ *       key: ip            # or username (read from the JSON request body)
+ *       capacity: 20       # burst size
+ *       refill-per-second: 1
+ * </pre>
+ *
+ * Rejected requests get 429 with X-RateLimit-Limit, X-RateLimit-Remaining and
+ * Retry-After and never reach the backend.
+ */
+@Component
+public class TokenBucketRateLimiterGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<TokenBucketRateLimiterGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiterGatewayFilterFactory.class);
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    // Bodies larger than this are not parsed for a username (login bodies are tiny)
+    private static final int MAX_BODY_BYTES = 4096;
+    // Shared bucket for requests whose username cannot be read, so hiding it does not bypass the limit
+    private static final String UNKNOWN_USERNAME = "<unknown>";
+
+    private final TokenBucketStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public TokenBucketRateLimiterGatewayFilterFactory(TokenBucketStore store, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("key", "capacity", "refillPerSecond");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (config.getKey() == KeyType.IP) {
+                return consume(exchange, config, clientIp(exchange))
+                        .flatMap(allowed -> allowed ? chain.filter(exchange) : Mono.empty());
+            }
+            // Buffer the body once so the username can be read and the backend still receives it
+            return ServerWebExchangeUtils.cacheRequestBody(exchange, request -> {
+                ServerWebExchange cached = exchange.mutate().request(request).build();
+                return consume(cached, config, username(cached))
+                        .flatMap(allowed -> allowed ? chain.filter(cached) : Mono.empty());
+            });
+        };
+    }
+
+    private Mono<Boolean> consume(ServerWebExchange exchange, Config config, String identity) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "unknown" : route.getId();
+        String key = routeId + ":" + config.getKey().name().toLowerCase(Locale.ROOT) + ":" + identity;
+
+        return store.tryConsume(key, config.getCapacity(), config.getRefillPerSecond())
+                .map(decision -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.getHeaders().set(LIMIT_HEADER, String.valueOf(decision.getLimit()));
+                    response.getHeaders().set(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+                    if (decision.isAllowed()) {
+                        return true;
+                    }
+                    logger.debug("Rate limit exceeded for {}", key);
+                    meterRegistry.counter("gateway.ratelimit.rejected",
+                            "route", routeId, "key", config.getKey().name().toLowerCase(Locale.ROOT)).increment();
+                    long retryAfterSeconds = Math.max(1, (long) Math.ceil(decision.getRetryAfter().toMillis() / 1000d));
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    return false;
+                })
+                .flatMap(allowed -> allowed ? Mono.just(true) : exchange.getResponse().setComplete().thenReturn(false));
+    }
+
+    private static String clientIp(ServerWebExchange exchange) {
+        // The socket address, not X-Forwarded-For: clients can put anything in that header
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            return "unknown";
+        }
+        return remote.getAddress().getHostAddress();
+    }
+
+    private String username(ServerWebExchange exchange) {
+        DataBuffer body = exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+        if (body == null || body.readableByteCount() == 0 || body.readableByteCount() > MAX_BODY_BYTES) {
+            return UNKNOWN_USERNAME;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(
+                    body.toString(body.readPosition(), body.readableByteCount(), StandardCharsets.UTF_8)).get("username");
+            if (username == null || !username.isTextual() || username.asText().isBlank()) {
+                return UNKNOWN_USERNAME;
+            }
+            return username.asText().trim().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            return UNKNOWN_USERNAME;
+        }
+    }
+
+    public enum KeyType {
+        IP, USERNAME
+    }
+
+    public static class Config {
+
+        private KeyType key = KeyType.IP;
+
+        // Burst size
+        private long capacity = 10;
+
+        // Sustained rate
+        private double refillPerSecond = 1;
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
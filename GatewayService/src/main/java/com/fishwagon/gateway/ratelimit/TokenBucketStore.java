@@ -0,0 +1,22 @@
+package com.fishwagon.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage for token buckets, keyed by route and client identity.
+ *
+ * The gateway ships with {@link InMemoryTokenBucketStore}, which limits each
+ * gateway instance independently. A shared implementation (e.g. Redis) can be
+ * plugged in by declaring another TokenBucketStore bean marked @Primary.
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Takes one token from the bucket for {@code key}, creating a full bucket if none exists.
+     *
+     * @param key              bucket identity, e.g. "AuthenticationLogin:ip:10.0.0.7"
+     * @param capacity         maximum tokens (burst size)
+     * @param refillPerSecond  tokens added per second
+     */
+    Mono<RateLimitDecision> tryConsume(String key, long capacity, double refillPerSecond);
+}
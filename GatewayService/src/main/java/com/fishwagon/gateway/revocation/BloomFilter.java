@@ -0,0 +1,79 @@
+package com.fishwagon.gateway.revocation;
+
+/**
+ * Fixed-size bloom filter over strings. Not thread-safe for writes: it is
+ * filled once while building a snapshot and only read afterwards.
+ */
+final class BloomFilter {
+
+    private final long[] words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.words = new long[(int) ((numBits + 63) >>> 6)];
+        this.numBits = (long) words.length << 6;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Sizes the filter for the expected number of keys at the given false-positive rate.
+     */
+    static BloomFilter create(int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    void put(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return numBits;
+    }
+
+    int hashCount() {
+        return numHashes;
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher): k indexes from one 64-bit hash
+    private long index(int combined) {
+        return (combined < 0 ? ~combined : combined) % numBits;
+    }
+
+    // FNV-1a over the UTF-16 chars, finished with the murmur3 fmix64 avalanche; no allocation per probe
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
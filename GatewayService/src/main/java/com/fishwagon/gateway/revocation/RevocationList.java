@@ -0,0 +1,212 @@
+package com.fishwagon.gateway.revocation;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fishwagon.common.assertion.ServiceAssertionExchangeFilter;
+import com.fishwagon.common.assertion.ServiceAssertionSigner;
+import com.fishwagon.gateway.config.VerifiedPrincipal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Local copy of the revoked tokens (jti) and revoked users kept by AuthenticationService.
+ *
+ * Requests read an immutable snapshot: a bloom filter over all revoked jtis and
+ * usernames, backed by exact maps. A token that is not revoked, the common case,
+ * costs only the filter probes; the maps are consulted on a filter hit to rule
+ * out false positives. The snapshot is rebuilt by a poll every
+ * revocation.sync-interval, so a logout reaches every gateway within seconds.
+ * If AuthenticationService is unreachable the last snapshot stays in force.
+ * Polls carry a service assertion, as the endpoint answers services only, and
+ * an lb:// revocation.uri goes to whichever replica discovery offers.
+ */
+@Component
+public class RevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationList.class);
+
+    private static final String TOKEN_KEY = "t:";
+    private static final String USER_KEY = "u:";
+
+    private static final String LOAD_BALANCED_SCHEME = "lb";
+
+    private final WebClient webClient;
+    private final RevocationProperties properties;
+    private final String uri;
+    private final Counter rejected;
+
+    private volatile Snapshot snapshot;
+    private volatile Instant cursor;  // null until the first full load
+
+    public RevocationList(WebClient.Builder webClientBuilder, LoadBalancedExchangeFilterFunction loadBalancer,
+            RevocationProperties properties, ServiceAssertionSigner serviceAssertionSigner, MeterRegistry meterRegistry) {
+        webClientBuilder.filter(new ServiceAssertionExchangeFilter(serviceAssertionSigner));  // 🔒 /auth/internal/** is service-only
+        URI configured = URI.create(properties.getUri());
+        if (LOAD_BALANCED_SCHEME.equals(configured.getScheme())) {
+            // Service id -> chosen instance; the load balancer only needs the service id as host
+            webClientBuilder.filter(loadBalancer);
+            this.uri = UriComponentsBuilder.fromUri(configured).scheme("http").toUriString();
+        } else {
+            this.uri = properties.getUri();
+        }
+        this.webClient = webClientBuilder.build();
+        this.properties = properties;
+        this.snapshot = new Snapshot(Map.of(), Map.of(), properties);
+        this.rejected = Counter.builder("gateway.revocation.rejected")
+                .description("Requests carrying a revoked token")
+                .register(meterRegistry);
+        Gauge.builder("gateway.revocation.entries", this, list -> list.snapshot.size())
+                .description("Revoked tokens and users currently tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if the principal's token was revoked, or its user was revoked after the token was issued
+     */
+    public boolean isRevoked(VerifiedPrincipal principal) {
+        boolean revoked = snapshot.isRevoked(principal);
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    @Scheduled(fixedDelayString = "${revocation.sync-interval:PT2S}", initialDelay = 0)
+    public void sync() {
+        fetch().block();  // Scheduler thread, never a Netty event loop
+    }
+
+    private Mono<Void> fetch() {
+        Instant since = cursor;
+        UriComponentsBuilder target = UriComponentsBuilder.fromUriString(uri);
+        if (since != null) {
+            target.queryParam("since", since.toString());
+        }
+        return webClient.get()
+                .uri(target.build().toUri())
+                .retrieve()
+                .bodyToMono(RevocationSyncResponse.class)
+                .timeout(properties.getTimeout())
+                .doOnNext(this::apply)
+                .onErrorResume(e -> {
+                    logger.warn("Revocation sync from {} failed, keeping {} entries: {}",
+                            properties.getUri(), snapshot.size(), e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void apply(RevocationSyncResponse response) {
+        Instant now = Instant.now();
+        Snapshot current = snapshot;
+        Map<String, Instant> tokens = new HashMap<>();
+        Map<String, UserRevocation> users = new HashMap<>();
+        current.tokens.forEach((jti, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                tokens.put(jti, expiresAt);
+            }
+        });
+        current.users.forEach((username, revocation) -> {
+            if (revocation.expiresAt.isAfter(now)) {
+                users.put(username, revocation);
+            }
+        });
+
+        for (RevocationSyncResponse.Entry entry : response.getEntries()) {
+            if (entry.getValue() == null || entry.getExpiresAt() == null || !entry.getExpiresAt().isAfter(now)) {
+                continue;
+            }
+            if ("TOKEN".equals(entry.getType())) {
+                tokens.put(entry.getValue(), entry.getExpiresAt());
+            } else if ("USER".equals(entry.getType()) && entry.getRecordedAt() != null) {
+                // Keep the latest revocation of the user; it covers every earlier one
+                users.merge(entry.getValue(), new UserRevocation(entry.getRecordedAt(), entry.getExpiresAt()),
+                        (a, b) -> a.revokedAt.isAfter(b.revokedAt) ? a : b);
+            }
+        }
+
+        if (!tokens.equals(current.tokens) || !users.equals(current.users)) {
+            snapshot = new Snapshot(tokens, users, properties);
+            logger.debug("Revocation list updated: {} tokens, {} users", tokens.size(), users.size());
+        }
+        if (response.getServerTime() != null) {
+            cursor = response.getServerTime().minus(properties.getOverlap());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, Instant> tokens;  // jti -> token expiry
+        private final Map<String, UserRevocation> users;
+        private final BloomFilter filter;
+
+        private Snapshot(Map<String, Instant> tokens, Map<String, UserRevocation> users,
+                RevocationProperties properties) {
+            this.tokens = Map.copyOf(tokens);
+            this.users = Map.copyOf(users);
+            this.filter = BloomFilter.create(
+                    Math.max(properties.getExpectedEntries(), 2 * (tokens.size() + users.size())),
+                    properties.getFalsePositiveRate());
+            tokens.keySet().forEach(jti -> filter.put(TOKEN_KEY + jti));
+            users.keySet().forEach(username -> filter.put(USER_KEY + username));
+        }
+
+        private boolean isRevoked(VerifiedPrincipal principal) {
+            String jti = principal.getTokenId();
+            if (jti != null && filter.mightContain(TOKEN_KEY + jti) && tokens.containsKey(jti)) {
+                return true;
+            }
+            String username = principal.getUsername();
+            if (!filter.mightContain(USER_KEY + username)) {
+                return false;
+            }
+            UserRevocation revocation = users.get(username);
+            // Tokens issued after the user was revoked (a new login) stay valid. iat has whole
+            // seconds only, so a token from the revocation's own second still counts as revoked
+            return revocation != null
+                    && (principal.getIssuedAt() == null
+                            || principal.getIssuedAt().getEpochSecond() <= revocation.revokedAt.getEpochSecond());
+        }
+
+        private int size() {
+            return tokens.size() + users.size();
+        }
+    }
+
+    private static final class UserRevocation {
+
+        private final Instant revokedAt;  // Whole seconds, like the iat it is compared with
+        private final Instant expiresAt;
+
+        private UserRevocation(Instant revokedAt, Instant expiresAt) {
+            this.revokedAt = revokedAt.truncatedTo(ChronoUnit.SECONDS);
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof UserRevocation that
+                    && revokedAt.equals(that.revokedAt) && expiresAt.equals(that.expiresAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return revokedAt.hashCode() * 31 + expiresAt.hashCode();
+        }
+    }
+}
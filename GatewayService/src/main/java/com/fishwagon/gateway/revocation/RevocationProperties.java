@@ -0,0 +1,77 @@
+package com.fishwagon.gateway.revocation;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Where and how often the gateway pulls revoked tokens and users from AuthenticationService.
+ */
+@Component
+@ConfigurationProperties(prefix = "revocation")  // Maps to revocation.* in application.yml
+public class RevocationProperties {
+
+    // lb:// resolves the service through discovery, any other scheme is called as is
+    private String uri = "lb://AuthenticationService/auth/internal/revocations";
+
+    // Upper bound on how long a logout takes to reach this gateway
+    private Duration syncInterval = Duration.ofSeconds(2);
+
+    // Each poll re-reads this much history, so revocations committed late are not skipped
+    private Duration overlap = Duration.ofSeconds(10);
+
+    private Duration timeout = Duration.ofSeconds(2);
+
+    // Bloom filter sizing; it grows automatically if more entries are active
+    private int expectedEntries = 100_000;
+    private double falsePositiveRate = 0.01;
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public Duration getOverlap() {
+        return overlap;
+    }
+
+    public void setOverlap(Duration overlap) {
+        this.overlap = overlap;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getExpectedEntries() {
+        return expectedEntries;
+    }
+
+    public void setExpectedEntries(int expectedEntries) {
+        this.expectedEntries = expectedEntries;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+}
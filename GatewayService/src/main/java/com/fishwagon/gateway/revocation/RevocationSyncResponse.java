@@ -0,0 +1,69 @@
+package com.fishwagon.gateway.revocation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Body of AuthenticationService's GET /auth/internal/revocations.
+ */
+public class RevocationSyncResponse {
+
+    private Instant serverTime;
+    private List<Entry> entries = List.of();
+
+    public Instant getServerTime() {
+        return serverTime;
+    }
+
+    public void setServerTime(Instant serverTime) {
+        this.serverTime = serverTime;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static class Entry {
+
+        private String type;  // TOKEN (value is a jti) or USER (value is a username)
+        private String value;
+        private Instant recordedAt;
+        private Instant expiresAt;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public Instant getRecordedAt() {
+            return recordedAt;
+        }
+
+        public void setRecordedAt(Instant recordedAt) {
+            this.recordedAt = recordedAt;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
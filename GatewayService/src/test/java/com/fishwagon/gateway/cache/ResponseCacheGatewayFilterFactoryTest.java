@@ -0,0 +1,271 @@
+package com.fishwagon.gateway.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String BODY = "{\"1\":\"ADMIN\"}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCacheGatewayFilterFactory factory =
+            new ResponseCacheGatewayFilterFactory(new ResponseCacheProperties(), meterRegistry);
+    private final GatewayFilter filter = factory.apply(config(Duration.ZERO, Duration.ofMinutes(10)));
+    private final Backend backend = new Backend(headers -> {
+        headers.setCacheControl("max-age=60, public");
+        headers.setETag("\"v1\"");
+    });
+
+    @Test
+    void sharedMaxAgeWinsOverMaxAge() {
+        assertThat(ttl("max-age=30, s-maxage=120")).isEqualTo(Duration.ofSeconds(120));
+        assertThat(ttl("s-maxage=120, max-age=30")).isEqualTo(Duration.ofSeconds(120));
+        assertThat(ttl("public, max-age=30")).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void theDefaultTtlAppliesOnlyWithoutAnAge() {
+        ResponseCacheGatewayFilterFactory.Config withDefault = config(Duration.ofSeconds(5), Duration.ofMinutes(10));
+
+        assertThat(ResponseCacheGatewayFilterFactory.storableFor(withDefault, 200, new HttpHeaders()))
+                .isEqualTo(Duration.ofSeconds(5));
+        assertThat(ResponseCacheGatewayFilterFactory.storableFor(withDefault, 200, cacheControl("public")))
+                .isEqualTo(Duration.ofSeconds(5));
+        assertThat(ResponseCacheGatewayFilterFactory.storableFor(withDefault, 200, cacheControl("max-age=0")))
+                .isZero();
+        assertThat(ttl(null)).isZero();  // Default of zero: no Cache-Control, no caching
+    }
+
+    @Test
+    void theBackendsAgeIsCappedAtMaxTtl() {
+        assertThat(ttl("max-age=86400")).isEqualTo(Duration.ofMinutes(10));
+        assertThat(ttl("max-age=-5")).isZero();
+        assertThat(ttl("max-age=soon")).isZero();
+    }
+
+    @Test
+    void privateNoStoreAndNoCacheResponsesAreNotShared() {
+        assertThat(ttl("private, max-age=60")).isZero();
+        assertThat(ttl("max-age=60, no-store")).isZero();
+        assertThat(ttl("no-cache, s-maxage=60")).isZero();
+        assertThat(ttl("Private, Max-Age=60")).isZero();
+    }
+
+    @Test
+    void varyOtherThanEncodingAndCorsIsNotShared() {
+        HttpHeaders headers = cacheControl("max-age=60");
+        headers.setVary(List.of("Accept-Encoding", "Origin", "Access-Control-Request-Method",
+                "Access-Control-Request-Headers"));
+        assertThat(storableFor(200, headers)).isEqualTo(Duration.ofSeconds(60));
+
+        headers.setVary(List.of("Origin", "Accept-Language"));
+        assertThat(storableFor(200, headers)).isZero();
+    }
+
+    @Test
+    void responsesSettingCookiesOrNotOkAreNotShared() {
+        HttpHeaders cookie = cacheControl("max-age=60");
+        cookie.add(HttpHeaders.SET_COOKIE, "session=1");
+
+        assertThat(storableFor(200, cookie)).isZero();
+        assertThat(storableFor(404, cacheControl("max-age=60"))).isZero();
+        assertThat(storableFor(206, cacheControl("max-age=60"))).isZero();
+    }
+
+    @Test
+    void servesARepeatedGetFromTheCache() {
+        MockServerWebExchange first = get("/users/public/roles");
+        MockServerWebExchange second = get("/users/public/roles");
+
+        run(first);
+        run(second);
+
+        assertThat(backend.calls).hasValue(1);
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(second.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isNotNull();
+        assertThat(count("miss")).isEqualTo(1);
+        assertThat(count("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void aMatchingIfNoneMatchGetsA304FromTheCache() {
+        run(get("/users/public/roles"));
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/users/public/roles")
+                .ifNoneMatch("W/\"v1\""));
+
+        run(conditional);
+
+        assertThat(backend.calls).hasValue(1);
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(conditional.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(conditional.getResponse().getHeaders().getCacheControl()).isEqualTo("max-age=60, public");
+        assertThat(conditional.getResponse().getBodyAsString().block()).isEmpty();
+    }
+
+    @Test
+    void aConditionalMissFetchesTheFullBodyAndStillAnswers304() {
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/users/public/roles")
+                .ifNoneMatch("\"v1\""));
+
+        run(conditional);
+        MockServerWebExchange next = get("/users/public/roles");
+        run(next);
+
+        assertThat(backend.ifNoneMatchSeen).containsExactly(List.of());  // The backend sent the full body
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(next.getResponse().getBodyAsString().block()).isEqualTo(BODY);  // ... and it was stored
+        assertThat(backend.calls).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneBackendRequest() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        backend.gate = release.asMono();
+        MockServerWebExchange first = get("/users/public/roles");
+        MockServerWebExchange second = get("/users/public/roles");
+
+        Mono<Void> firstDone = filter.filter(first, backend).cache();
+        firstDone.subscribe();
+        Mono<Void> secondDone = filter.filter(second, backend).cache();
+        secondDone.subscribe();
+        release.tryEmitEmpty();
+        firstDone.block(Duration.ofSeconds(5));
+        secondDone.block(Duration.ofSeconds(5));
+
+        assertThat(backend.calls).hasValue(1);
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(count("collapsed")).isEqualTo(1);
+    }
+
+    @Test
+    void waitersGoToTheBackendThemselvesWhenTheResponseIsNotStorable() {
+        Backend uncacheable = new Backend(headers -> headers.setCacheControl("private, max-age=60"));
+        Sinks.Empty<Void> release = Sinks.empty();
+        uncacheable.gate = release.asMono();
+        MockServerWebExchange first = get("/users/me");
+        MockServerWebExchange second = get("/users/me");
+
+        Mono<Void> firstDone = filter.filter(first, uncacheable).cache();
+        firstDone.subscribe();
+        Mono<Void> secondDone = filter.filter(second, uncacheable).cache();
+        secondDone.subscribe();
+        release.tryEmitEmpty();
+        firstDone.block(Duration.ofSeconds(5));
+        secondDone.block(Duration.ofSeconds(5));
+
+        assertThat(uncacheable.calls).hasValue(2);
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    @Test
+    void aClientsNoCacheNeitherBypassesNorReplacesTheSharedEntry() {
+        run(get("/users/public/roles"));
+        MockServerWebExchange noCache = exchange(MockServerHttpRequest.get("/users/public/roles")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        MockServerWebExchange pragma = exchange(MockServerHttpRequest.get("/users/public/roles")
+                .header(HttpHeaders.PRAGMA, "no-cache"));
+
+        run(noCache);
+        run(pragma);
+
+        assertThat(backend.calls).hasValue(1);
+        assertThat(noCache.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(pragma.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+        assertThat(count("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void authorizedRequestsAreNeverCached() {
+        run(exchange(MockServerHttpRequest.get("/users/public/roles").header(HttpHeaders.AUTHORIZATION, "Bearer t")));
+        run(get("/users/public/roles"));
+
+        assertThat(backend.calls).hasValue(2);
+    }
+
+    private void run(MockServerWebExchange exchange) {
+        filter.filter(exchange, backend).block(Duration.ofSeconds(5));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("gateway.response.cache", "result", result).count();
+    }
+
+    private static Duration ttl(String cacheControl) {
+        return storableFor(200, cacheControl == null ? new HttpHeaders() : cacheControl(cacheControl));
+    }
+
+    private static Duration storableFor(int status, HttpHeaders headers) {
+        return ResponseCacheGatewayFilterFactory.storableFor(config(Duration.ZERO, Duration.ofMinutes(10)), status,
+                headers);
+    }
+
+    private static HttpHeaders cacheControl(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(value);
+        return headers;
+    }
+
+    private static ResponseCacheGatewayFilterFactory.Config config(Duration defaultTtl, Duration maxTtl) {
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setDefaultTtl(defaultTtl);
+        config.setMaxTtl(maxTtl);
+        return config;
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return exchange(MockServerHttpRequest.get(path));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    // Stands in for the route: answers 200 with BODY and the given headers, optionally after a gate opens
+    private static final class Backend implements GatewayFilterChain {
+
+        private final Consumer<HttpHeaders> headers;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<List<String>> ifNoneMatchSeen = new ArrayList<>();
+        private Mono<Void> gate = Mono.empty();
+
+        private Backend(Consumer<HttpHeaders> headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            calls.incrementAndGet();
+            ifNoneMatchSeen.add(exchange.getRequest().getHeaders().getIfNoneMatch());
+            return gate.then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+                response.setStatusCode(HttpStatus.OK);
+                headers.accept(response.getHeaders());
+                response.getHeaders().setContentLength(body.length);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            }));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.fishwagon.gateway.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+class RoutePolicyMatcherTest {
+
+    private final RoutePolicyMatcher matcher = new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+            rule("/auth/internal/**", RoutePolicy.Access.DENY),
+            rule("/auth/public/**", RoutePolicy.Access.PUBLIC),
+            rule("/users/public/createUser", RoutePolicy.Access.PUBLIC),
+            rule("/users/public/getRoleName/*", RoutePolicy.Access.PUBLIC),
+            rule("/users/admin/**", RoutePolicy.Access.ROLES, "ADMIN"),
+            rule("/users/*/avatar", RoutePolicy.Access.PUBLIC),
+            rule("/users/**", RoutePolicy.Access.ROLES, "ADMIN", "ROLE_MANAGER")));
+
+    @Test
+    void literalSegmentsBeatWildcardsAndWildcardsBeatTheRemainder() {
+        assertThat(pattern("/users/admin/findAll")).isEqualTo("/users/admin/**");
+        assertThat(pattern("/users/admin/avatar")).isEqualTo("/users/admin/**");
+        assertThat(pattern("/users/42/avatar")).isEqualTo("/users/*/avatar");
+        assertThat(pattern("/users/42")).isEqualTo("/users/**");
+    }
+
+    @Test
+    void doubleStarAlsoMatchesItsOwnPrefix() {
+        assertThat(pattern("/users")).isEqualTo("/users/**");
+        assertThat(pattern("/users/admin")).isEqualTo("/users/admin/**");
+        assertThat(pattern("/auth/internal")).isEqualTo("/auth/internal/**");
+    }
+
+    @Test
+    void singleStarMatchesExactlyOneSegment() {
+        assertThat(pattern("/users/public/getRoleName/3")).isEqualTo("/users/public/getRoleName/*");
+        assertThat(pattern("/users/public/getRoleName")).isEqualTo("/users/**");
+        assertThat(pattern("/users/public/getRoleName/3/extra")).isEqualTo("/users/**");
+    }
+
+    @Test
+    void onlyListedPublicPathsArePublic() {
+        assertThat(matcher.match("/users/public/createUser").getAccess()).isEqualTo(RoutePolicy.Access.PUBLIC);
+        assertThat(matcher.match("/users/public/createUserX").getAccess()).isEqualTo(RoutePolicy.Access.ROLES);
+        assertThat(matcher.match("/users/public/findByUsername/alice").getAccess())
+                .isEqualTo(RoutePolicy.Access.ROLES);
+    }
+
+    @Test
+    void trailingAndRepeatedSlashesAreIgnored() {
+        assertThat(pattern("/users/public/createUser/")).isEqualTo("/users/public/createUser");
+        assertThat(pattern("//users//public///createUser")).isEqualTo("/users/public/createUser");
+        assertThat(pattern("/auth/internal/")).isEqualTo("/auth/internal/**");
+    }
+
+    @Test
+    void unmatchedPathsGetTheDefaultAccess() {
+        RoutePolicy policy = matcher.match("/orders/7");
+
+        assertThat(policy.getPattern()).isEqualTo("<default>");
+        assertThat(policy.getAccess()).isEqualTo(RoutePolicy.Access.AUTHENTICATED);
+        assertThat(matcher.match("/").getPattern()).isEqualTo("<default>");
+
+        RoutePolicyMatcher denyByDefault = new RoutePolicyMatcher(properties(RoutePolicy.Access.DENY));
+        assertThat(denyByDefault.match("/orders/7").getAccess()).isEqualTo(RoutePolicy.Access.DENY);
+    }
+
+    @Test
+    void deniesPathsABackendCouldResolveDifferently() {
+        for (String path : List.of(
+                "/users/public/../admin/findAll",
+                "/users/public/createUser/..",
+                "/users/./admin/findAll",
+                "/users/public/createUser;jsessionid=1",
+                "/users/public;x=1/createUser",
+                "/users/public/%2e%2e/admin/findAll",
+                "/users/public/%2E%2E/admin/findAll",
+                "/users/public%2F..%2Fadmin/findAll",
+                "/users/public%2fcreateUser",
+                "/users/public%5c..%5cadmin")) {
+            assertThat(matcher.match(path)).as(path).isSameAs(RoutePolicy.NON_NORMALIZED);
+        }
+        assertThat(RoutePolicy.NON_NORMALIZED.getAccess()).isEqualTo(RoutePolicy.Access.DENY);
+    }
+
+    @Test
+    void otherEncodedCharactersAreOrdinarySegments() {
+        assertThat(pattern("/users/john%20doe")).isEqualTo("/users/**");
+        assertThat(pattern("/users/a.b/avatar")).isEqualTo("/users/*/avatar");
+    }
+
+    @Test
+    void rolesGetTheRolePrefixOnce() {
+        assertThat(matcher.match("/users/42").getRoles()).containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_MANAGER");
+    }
+
+    @Test
+    void resolvesOncePerExchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/admin/findAll"));
+
+        RoutePolicy first = matcher.resolve(exchange);
+
+        assertThat(first.getPattern()).isEqualTo("/users/admin/**");
+        assertThat(matcher.resolve(exchange)).isSameAs(first);
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThatThrownBy(() -> new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+                rule("users/**", RoutePolicy.Access.PUBLIC))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("must start with /");
+        assertThatThrownBy(() -> new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+                rule("/users/**/avatar", RoutePolicy.Access.PUBLIC))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("last segment");
+        assertThatThrownBy(() -> new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+                rule("/users/*", RoutePolicy.Access.PUBLIC), rule("/users/*/", RoutePolicy.Access.DENY))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate");
+        assertThatThrownBy(() -> new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+                rule("/users/../admin", RoutePolicy.Access.PUBLIC))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Invalid");
+        assertThatThrownBy(() -> new RoutePolicyMatcher(properties(RoutePolicy.Access.AUTHENTICATED,
+                rule("/users/admin/**", RoutePolicy.Access.ROLES))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least one role");
+    }
+
+    private String pattern(String path) {
+        return matcher.match(path).getPattern();
+    }
+
+    private static RoutePolicyProperties properties(RoutePolicy.Access defaultAccess,
+            RoutePolicyProperties.Rule... rules) {
+        RoutePolicyProperties properties = new RoutePolicyProperties();
+        properties.setDefaultAccess(defaultAccess);
+        properties.setRules(new ArrayList<>(List.of(rules)));
+        return properties;
+    }
+
+    private static RoutePolicyProperties.Rule rule(String pattern, RoutePolicy.Access access, String... roles) {
+        RoutePolicyProperties.Rule rule = new RoutePolicyProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setAccess(access);
+        rule.setRoles(List.of(roles));
+        return rule;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fishwagon.gateway.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void sizedForTheExpectedEntriesAndRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2 = 95851 bits, rounded up to whole words; k = m/n ln 2 = 7
+        assertThat(filter.bitSize()).isEqualTo(95_872);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void tinyFiltersStillWork() {
+        BloomFilter filter = BloomFilter.create(0, 0.01);
+        filter.put("t:only");
+
+        assertThat(filter.bitSize()).isEqualTo(64);
+        assertThat(filter.mightContain("t:only")).isTrue();
+    }
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("t:" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("t:" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("t:" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("u:" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+}
@@ -0,0 +1,160 @@
+package com.fishwagon.gateway.revocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fishwagon.common.assertion.GatewayAssertionCodec;
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.assertion.ServiceAssertionSigner;
+import com.fishwagon.gateway.config.VerifiedPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class RevocationListTest {
+
+    private static final Instant SERVER_TIME = Instant.parse("2026-01-01T12:00:00Z");
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private final Deque<ClientResponse> responses = new ArrayDeque<>();
+    private final List<URI> loadBalanced = new ArrayList<>();
+    private final RevocationProperties properties = new RevocationProperties();
+
+    @Test
+    void firstSyncIsAFullLoadThenTheCursorTrailsTheServerTimeByTheOverlap() {
+        properties.setUri("http://auth.test/auth/internal/revocations");
+        RevocationList list = revocationList();
+        respond(SERVER_TIME, "[]");
+        respond(SERVER_TIME.plusSeconds(2), "[]");
+
+        list.sync();
+        list.sync();
+
+        assertThat(requests.get(0).url().getQuery()).isNull();
+        assertThat(requests.get(1).url().getQuery()).isEqualTo("since=2026-01-01T11:59:50Z");
+    }
+
+    @Test
+    void entriesReadAgainInTheOverlapAreKeptOnce() {
+        properties.setUri("http://auth.test/auth/internal/revocations");
+        RevocationList list = revocationList();
+        String entries = "[" + entry("TOKEN", "jti-1", SERVER_TIME) + "," + entry("USER", "bob", SERVER_TIME) + "]";
+        respond(SERVER_TIME, entries);
+        respond(SERVER_TIME.plusSeconds(2), entries);  // Same rows again: recorded inside the overlap window
+
+        list.sync();
+        list.sync();
+
+        assertThat(list.isRevoked(principal("alice", "jti-1", SERVER_TIME.minusSeconds(60)))).isTrue();
+        assertThat(list.isRevoked(principal("alice", "jti-2", SERVER_TIME.minusSeconds(60)))).isFalse();
+        assertThat(list.isRevoked(principal("bob", "jti-3", SERVER_TIME.minusSeconds(60)))).isTrue();
+        assertThat(list.isRevoked(principal("bob", "jti-4", SERVER_TIME.plusSeconds(1)))).isFalse();  // New login
+    }
+
+    @Test
+    void userRevocationsCompareWithTheTokensWholeSecondIssuedAt() {
+        properties.setUri("http://auth.test/auth/internal/revocations");
+        RevocationList list = revocationList();
+        Instant revokedAt = SERVER_TIME.plusMillis(700);
+        respond(SERVER_TIME.plusSeconds(1), "[" + entry("USER", "bob", revokedAt) + "]");
+
+        list.sync();
+
+        assertThat(list.isRevoked(principal("bob", "jti-1", SERVER_TIME.minusSeconds(1)))).isTrue();
+        assertThat(list.isRevoked(principal("bob", "jti-2", SERVER_TIME))).isTrue();  // Same second: may predate it
+        assertThat(list.isRevoked(principal("bob", "jti-3", SERVER_TIME.plusSeconds(1)))).isFalse();
+        // An iat carrying sub-second precision is judged by its second as well
+        assertThat(list.isRevoked(principal("bob", "jti-4", SERVER_TIME.plusMillis(900)))).isTrue();
+    }
+
+    @Test
+    void aFailedSyncKeepsTheSnapshotAndTheCursor() {
+        properties.setUri("http://auth.test/auth/internal/revocations");
+        RevocationList list = revocationList();
+        respond(SERVER_TIME, "[" + entry("TOKEN", "jti-1", SERVER_TIME) + "]");
+        responses.add(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        respond(SERVER_TIME.plusSeconds(4), "[]");
+
+        list.sync();
+        list.sync();
+        list.sync();
+
+        assertThat(list.isRevoked(principal("alice", "jti-1", SERVER_TIME.minusSeconds(60)))).isTrue();
+        assertThat(requests.get(1).url().getQuery()).isEqualTo(requests.get(2).url().getQuery());
+    }
+
+    @Test
+    void pollsAreSignedAndLbUrisGoThroughTheLoadBalancer() {
+        properties.setUri("lb://AuthenticationService/auth/internal/revocations");
+        RevocationList list = revocationList();
+        respond(SERVER_TIME, "[]");
+
+        list.sync();
+
+        assertThat(loadBalanced).containsExactly(URI.create("http://AuthenticationService/auth/internal/revocations"));
+        assertThat(requests.get(0).headers().getFirst("X-Gateway-Assertion")).startsWith("v2.");
+    }
+
+    @Test
+    void otherUrisAreCalledDirectly() {
+        properties.setUri("http://localhost:8081/auth/internal/revocations");
+        RevocationList list = revocationList();
+        respond(SERVER_TIME, "[]");
+
+        list.sync();
+
+        assertThat(loadBalanced).isEmpty();
+        assertThat(requests.get(0).url()).isEqualTo(URI.create("http://localhost:8081/auth/internal/revocations"));
+    }
+
+    private RevocationList revocationList() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            requests.add(request);
+            return Mono.just(responses.removeFirst());
+        });
+        LoadBalancedExchangeFilterFunction loadBalancer = (request, next) -> {
+            loadBalanced.add(request.url());
+            return next.exchange(request);
+        };
+        GatewayAssertionCodec codec = new GatewayAssertionCodec(
+                Base64.getEncoder().encodeToString("test-only-gateway-assertion-key!".getBytes(StandardCharsets.UTF_8)),
+                Duration.ofSeconds(5));
+        ServiceAssertionSigner signer = new ServiceAssertionSigner(codec, new GatewayAssertionProperties(), "gateway");
+        return new RevocationList(builder, loadBalancer, properties, signer, new SimpleMeterRegistry());
+    }
+
+    private void respond(Instant serverTime, String entries) {
+        responses.add(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"serverTime\":\"" + serverTime + "\",\"entries\":" + entries + "}")
+                .build());
+    }
+
+    private static String entry(String type, String value, Instant recordedAt) {
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        return "{\"type\":\"" + type + "\",\"value\":\"" + value + "\",\"recordedAt\":\"" + recordedAt
+                + "\",\"expiresAt\":\"" + expiresAt + "\"}";
+    }
+
+    private static VerifiedPrincipal principal(String username, String jti, Instant issuedAt) {
+        return new VerifiedPrincipal(username, List.of(), issuedAt.plus(Duration.ofHours(1)), jti, issuedAt);
+    }
+}
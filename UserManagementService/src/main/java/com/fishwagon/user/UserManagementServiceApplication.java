@@ -3,11 +3,13 @@ package com.fishwagon.user;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.fishwagon.user.security.JwtConfig;
 
 @SpringBootApplication
 @EnableConfigurationProperties(JwtConfig.class) 
+@EnableScheduling  // ✅ Periodic refresh of the RoleRegistry
 public class UserManagementServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,55 @@
+package com.fishwagon.user.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.BlockingLoadBalancerInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.fishwagon.common.assertion.ServiceAssertionRequestInterceptor;
+import com.fishwagon.common.assertion.ServiceAssertionSigner;
+import com.fishwagon.user.security.JwtConfig;
+
+/**
+ * Tells AuthenticationService to revoke every access and refresh token of a
+ * user, through its service-only /auth/internal/revocations/users endpoint.
+ *
+ * Best effort: a failed call is logged, not retried. The local
+ * DisabledUserCache still refuses the user here, and the user's next token
+ * refresh fails anyway because the user can no longer be loaded.
+ */
+@Component
+public class AuthRevocationClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRevocationClient.class);
+
+    private final RestClient restClient;
+
+    public AuthRevocationClient(RestClient.Builder restClientBuilder, BlockingLoadBalancerInterceptor loadBalancer,
+            ServiceAssertionSigner serviceAssertionSigner, JwtConfig jwtConfig) {
+        JwtConfig.RevocationCheck settings = jwtConfig.getRevocationCheck();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(settings.getTimeout());
+        requestFactory.setReadTimeout(settings.getTimeout());
+        this.restClient = restClientBuilder.clone()
+                .baseUrl(settings.getAuthServiceUri())
+                .requestFactory(requestFactory)
+                .requestInterceptor(new ServiceAssertionRequestInterceptor(serviceAssertionSigner))  // 🔒 Signed as this service
+                .requestInterceptor(loadBalancer)  // Service id -> registered instance
+                .build();
+    }
+
+    public void revokeUser(String username) {
+        try {
+            restClient.post()
+                    .uri("/auth/internal/revocations/users/{username}", username)
+                    .retrieve()
+                    .toBodilessEntity();
+            logger.info("Revoked the tokens of deleted user {}", username);
+        } catch (RestClientException e) {
+            logger.warn("Could not revoke the tokens of deleted user {}: {}", username, e.getMessage());
+        }
+    }
+}
@@ -1,23 +1,49 @@
 package com.fishwagon.user.controller;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fishwagon.common.hashing.PasswordHashingRejectedException;
+import com.fishwagon.user.dto.ImportEventDTO;
 import com.fishwagon.user.dto.UserAuthDTO;
+import com.fishwagon.user.dto.UserPageDTO;
 import com.fishwagon.user.dto.UserRegistrationDTO;
+import com.fishwagon.user.dto.UserSummaryDTO;
 import com.fishwagon.user.model.UserEntity;
-import com.fishwagon.user.repository.RoleRepository;
 import com.fishwagon.user.repository.UserRepository;
 import com.fishwagon.user.security.JwtFilter;
+import com.fishwagon.user.service.BulkImportProperties;
+import com.fishwagon.user.service.BulkUserImportService;
+import com.fishwagon.user.service.RoleRegistry;
+import com.fishwagon.user.service.UserAuthLookup;
 import com.fishwagon.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -27,13 +53,30 @@ public class UserController {
 
     private final UserService userService;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final BulkUserImportService bulkUserImportService;
+    private final BulkImportProperties bulkImportProperties;
+    private final UserAuthLookup userAuthLookup;
+    private final ObjectWriter userSummaryWriter;
+    private final ObjectWriter importEventWriter;
     private static final Logger logger = LoggerFactory.getLogger(JwtFilter.class);
 
-    public UserController(RoleRepository roleRepository, UserService userService, UserRepository userRepository) {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final CacheControl ROLE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+    public UserController(RoleRegistry roleRegistry, UserService userService, UserRepository userRepository,
+            BulkUserImportService bulkUserImportService, BulkImportProperties bulkImportProperties,
+            UserAuthLookup userAuthLookup, ObjectMapper objectMapper) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.bulkUserImportService = bulkUserImportService;
+        this.bulkImportProperties = bulkImportProperties;
+        this.userAuthLookup = userAuthLookup;
+        this.userSummaryWriter = objectMapper.writerFor(UserSummaryDTO.class);
+        this.importEventWriter = objectMapper.writerFor(ImportEventDTO.class);
     }
 
     // ✅ Public API (No Authentication Required)
@@ -42,35 +85,52 @@ public class UserController {
         return "User Management Service is working!";
     }
 
-    // ✅ Public API to Get User by Username
-    @GetMapping("/public/findByUsername/{username}")
+    // 🔒 Service-only: user with password hash, for AuthenticationService (concurrent lookups of one username share a query)
+    @GetMapping("/internal/findByUsername/{username}")
     public ResponseEntity<UserAuthDTO> getUserByUsername(@PathVariable String username) {
-        Optional<UserEntity> userOptional = userRepository.findByUsername(username);
-
-        if (userOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        UserEntity user = userOptional.get();
-        UserAuthDTO userAuthDTO = new UserAuthDTO();
-        userAuthDTO.setUsername(user.getUsername());
-        userAuthDTO.setPassword(user.getPassword());
-        userAuthDTO.setRoleId(user.getRoleId());
+        return userAuthLookup.findByUsername(username)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        return ResponseEntity.ok(userAuthDTO);
+    // 🔒 Service-only: user and role name in one call (used by AuthenticationService login)
+    @GetMapping("/internal/findAuthByUsername/{username}")
+    public ResponseEntity<UserAuthDTO> getUserAuthByUsername(@PathVariable String username) {
+        return userAuthLookup.findAuthByUsername(username)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // 🔒 Restricted to ADMIN Only
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    // Keyset pagination: pass the previous page's nextAfterId as afterId (password never included)
     @GetMapping("/admin/findAll")
-    public List<UserEntity> getAllUsers() {
+    public UserPageDTO getAllUsers(@RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
     	
     	logger.debug("INSIDE FIND ALL METHOD");
     	Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         logger.debug("Current Authentication: {}", authentication);
         logger.debug("User Principal: {}", authentication.getPrincipal());
         logger.debug("User Authorities: {}", authentication.getAuthorities());
-        return userService.getAllUsers();
+        return userService.getUserPage(afterId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    // 🔒 Restricted to ADMIN Only
+    // ✅ Full export as NDJSON (one user per line), streamed from a DB cursor with constant memory
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping(value = "/admin/findAll", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAllUsers() {
+        StreamingResponseBody body = out -> userService.exportUserSummaries(user -> {
+            try {
+                // writeValueAsBytes, not writeValue(out): Jackson would close the response stream
+                out.write(userSummaryWriter.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
     }
 
     // 🔒 Restricted to ADMIN & MANAGER
@@ -80,12 +140,48 @@ public class UserController {
         return userService.getUserById(id);
     }
 
-    // ✅ Public API to Register User
+    // ✅ Public API to Register User (always with the default role, see users.registration)
     @PostMapping("/public/createUser")
     public UserRegistrationDTO createUser(@RequestBody UserRegistrationDTO req) {
         return userService.saveUser(req);
     }
 
+    // 🔒 Service-only: called by AuthenticationService after a successful login when the stored hash cost is out of band.
+    // The gateway denies /users/internal/**; the raw password is re-verified here all the same.
+    @PostMapping("/internal/rehashPassword")
+    public ResponseEntity<Void> rehashPassword(@RequestBody Map<String, String> credentials) {
+        boolean rehashed = userService.rehashPassword(credentials.get("username"), credentials.get("password"));
+        logger.debug("Rehash requested for {}: {}", credentials.get("username"), rehashed ? "updated" : "unchanged");
+        return ResponseEntity.noContent().build();
+    }
+
+    // 🔒 Restricted to ADMIN Only
+    // ✅ Bulk import: NDJSON of UserRegistrationDTO in, NDJSON of per-row errors and progress out
+    // Runs under users.bulk-import.timeout, not the 10m MVC default: tens of thousands of BCrypt hashes
+    // take longer than any export, and a StreamingResponseBody cannot carry a timeout of its own
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping(value = "/admin/bulkImport", consumes = APPLICATION_NDJSON, produces = APPLICATION_NDJSON)
+    public WebAsyncTask<Void> bulkImport(InputStream requestBody, HttpServletResponse response) {
+        return new WebAsyncTask<>(bulkImportProperties.getTimeout().toMillis(), () -> {
+            response.setContentType(APPLICATION_NDJSON);
+            OutputStream out = response.getOutputStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(requestBody, StandardCharsets.UTF_8));
+            bulkUserImportService.importUsers(reader, event -> {
+                try {
+                    out.write(importEventWriter.writeValueAsBytes(event));
+                    out.write('\n');
+                    if (!"error".equals(event.getType())) {
+                        out.flush();  // Push progress to the client after every chunk
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            return null;  // Response already written; the HttpServletResponse argument marks it handled
+        });
+    }
+
     // 🔒 Only ADMIN Can Delete Users
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
@@ -93,11 +189,37 @@ public class UserController {
         userService.deleteUser(id);
     }
 
-    // ✅ Public API to Fetch Role Name by ID
+    // ✅ Public API to Fetch Role Name by ID (served from the in-memory RoleRegistry)
+    // Cacheable by the gateway and clients; the ETag is the role table's version
     @GetMapping("/public/getRoleName/{roleId}")
-    public ResponseEntity<String> getRoleNameById(@PathVariable Long roleId) {
-        return roleRepository.findById(roleId)
-                .map(role -> ResponseEntity.ok(role.getRoleName()))
+    public ResponseEntity<String> getRoleNameById(@PathVariable Long roleId, WebRequest request) {
+        String etag = roleRegistry.getEtag();
+        if (request.checkNotModified(etag)) {
+            return null;  // 304 Not Modified already prepared by checkNotModified
+        }
+        return roleRegistry.findRoleName(roleId)
+                .map(roleName -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(ROLE_CACHE_CONTROL)
+                        .body(roleName))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    // ✅ Public API returning the whole role table; clients mirror it and revalidate with If-None-Match
+    @GetMapping("/public/roles")
+    public ResponseEntity<Map<Long, String>> getRoles(WebRequest request) {
+        String etag = roleRegistry.getEtag();
+        if (request.checkNotModified(etag)) {
+            return null;  // 304 Not Modified already prepared by checkNotModified
+        }
+        return ResponseEntity.ok().eTag(etag).body(roleRegistry.getRoleNames());
+    }
+
+    // ✅ BCrypt pool saturated: ask the client to retry instead of tying up request threads
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, String>> hashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(Map.of("error", "Registration temporarily unavailable, please retry"));
+    }
 }
@@ -0,0 +1,70 @@
+package com.fishwagon.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the bulk-import NDJSON response: a per-row error, a progress
+ * report after each chunk, or the final summary.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEventDTO {
+
+    private final String type;
+    private final Integer line;
+    private final String username;
+    private final String message;
+    private final Integer processed;
+    private final Integer imported;
+    private final Integer failed;
+
+    private ImportEventDTO(String type, Integer line, String username, String message,
+            Integer processed, Integer imported, Integer failed) {
+        this.type = type;
+        this.line = line;
+        this.username = username;
+        this.message = message;
+        this.processed = processed;
+        this.imported = imported;
+        this.failed = failed;
+    }
+
+    public static ImportEventDTO error(int line, String username, String message) {
+        return new ImportEventDTO("error", line, username, message, null, null, null);
+    }
+
+    public static ImportEventDTO progress(int processed, int imported, int failed) {
+        return new ImportEventDTO("progress", null, null, null, processed, imported, failed);
+    }
+
+    public static ImportEventDTO summary(int processed, int imported, int failed) {
+        return new ImportEventDTO("summary", null, null, null, processed, imported, failed);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Integer getLine() {
+        return line;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Integer getProcessed() {
+        return processed;
+    }
+
+    public Integer getImported() {
+        return imported;
+    }
+
+    public Integer getFailed() {
+        return failed;
+    }
+}
@@ -5,6 +5,7 @@ public class UserAuthDTO {
 	private String username;
     private String password;  // ✅ Include hashed password for authentication
     private Long roleId;  // ✅ Include role for authorization
+    private String roleName;  // ✅ Resolved role name, so callers need no second lookup
 
     public UserAuthDTO() {
 		
@@ -18,11 +19,18 @@ public class UserAuthDTO {
 	public void setRoleId(Long roleId) {
 		this.roleId = roleId;
 	}
+	public void setRoleName(String roleName) {
+		this.roleName = roleName;
+	}
 	public UserAuthDTO(String username, String password, Long roleId) {
         this.username = username;
         this.password = password;
         this.roleId = roleId;
     }
+	public UserAuthDTO(String username, String password, Long roleId, String roleName) {
+        this(username, password, roleId);
+        this.roleName = roleName;
+    }
 
     public String getUsername() {
         return username;
@@ -35,4 +43,8 @@ public class UserAuthDTO {
     public Long getRoleId() {
         return roleId;
     }
+
+    public String getRoleName() {
+        return roleName;
+    }
 }
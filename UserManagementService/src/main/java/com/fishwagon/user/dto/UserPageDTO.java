@@ -0,0 +1,26 @@
+package com.fishwagon.user.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of users. Pass nextAfterId as afterId to fetch the next page;
+ * it is null once the last page has been returned.
+ */
+public class UserPageDTO {
+
+    private final List<UserSummaryDTO> users;
+    private final Long nextAfterId;
+
+    public UserPageDTO(List<UserSummaryDTO> users, Long nextAfterId) {
+        this.users = users;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<UserSummaryDTO> getUsers() {
+        return users;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.fishwagon.user.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a user for admin listings and exports.
+ * Built directly by JPQL constructor expressions, so the password column is never selected.
+ */
+public class UserSummaryDTO {
+
+    private final Long id;
+    private final String username;
+    private final String mobile;
+    private final String profilePic;
+    private final LocalDate createdAt;
+    private final Long roleId;
+
+    public UserSummaryDTO(Long id, String username, String mobile, String profilePic, LocalDate createdAt,
+            Long roleId) {
+        this.id = id;
+        this.username = username;
+        this.mobile = mobile;
+        this.profilePic = profilePic;
+        this.createdAt = createdAt;
+        this.roleId = roleId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getMobile() {
+        return mobile;
+    }
+
+    public String getProfilePic() {
+        return profilePic;
+    }
+
+    public LocalDate getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+}
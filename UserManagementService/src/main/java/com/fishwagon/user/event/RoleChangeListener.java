@@ -0,0 +1,31 @@
+package com.fishwagon.user.event;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.fishwagon.user.model.Role;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener on {@link Role}: turns role writes into RoleChangedEvents
+ * so the RoleRegistry can refresh once the transaction commits.
+ */
+@Component
+public class RoleChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RoleChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onRoleWritten(Role role) {
+        eventPublisher.publishEvent(new RoleChangedEvent(role.getId()));
+    }
+}
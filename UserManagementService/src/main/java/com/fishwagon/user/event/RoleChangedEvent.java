@@ -0,0 +1,17 @@
+package com.fishwagon.user.event;
+
+/**
+ * Published whenever a row of user_roles is inserted, updated or deleted through JPA.
+ */
+public class RoleChangedEvent {
+
+    private final Long roleId;
+
+    public RoleChangedEvent(Long roleId) {
+        this.roleId = roleId;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+}
@@ -2,9 +2,11 @@ package com.fishwagon.user.model;
 
 import jakarta.persistence.*;
 
+import com.fishwagon.user.event.RoleChangeListener;
 
 @Entity
 @Table(name = "user_roles")
+@EntityListeners(RoleChangeListener.class)  // ✅ Keeps RoleRegistry in sync
 
 public class Role {
     @Id
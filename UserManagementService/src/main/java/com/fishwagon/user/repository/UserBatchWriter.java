@@ -0,0 +1,77 @@
+package com.fishwagon.user.repository;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.fishwagon.user.model.Address;
+import com.fishwagon.user.model.UserEntity;
+
+/*Plain JDBC batch inserts for bulk imports. Hibernate cannot batch inserts for
+ * IDENTITY ids, so users and addresses are written here as real JDBC batches
+ * (one multi-row INSERT with rewriteBatchedStatements) and the generated user
+ * ids are read back from the batch. Runs in the caller's transaction.*/
+@Repository
+public class UserBatchWriter {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, password, mobile, profile_pic, created_at, role_id) "
+            + "VALUES (:username, :password, :mobile, :profilePic, :createdAt, :roleId)";
+
+    private static final String INSERT_ADDRESS =
+            "INSERT INTO user_address (street, city, state, country, postal_code, user_id) "
+            + "VALUES (:street, :city, :state, :country, :postalCode, :userId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserBatchWriter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the users in one batch and sets each entity's generated id.
+     */
+    public void insertUsers(List<UserEntity> users) {
+        SqlParameterSource[] rows = users.stream()
+                .map(user -> new MapSqlParameterSource()
+                        .addValue("username", user.getUsername())
+                        .addValue("password", user.getPassword())
+                        .addValue("mobile", user.getMobile())
+                        .addValue("profilePic", user.getProfilePic())
+                        .addValue("createdAt", user.getCreatedAt() == null ? null : Date.valueOf(user.getCreatedAt()))
+                        .addValue("roleId", user.getRoleId()))
+                .toArray(SqlParameterSource[]::new);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder(new ArrayList<>(rows.length));
+        jdbcTemplate.batchUpdate(INSERT_USER, rows, keyHolder, new String[] { "id" });
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != users.size()) {
+            throw new IllegalStateException("Expected " + users.size() + " generated ids, got " + keys.size());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    public void insertAddresses(List<Address> addresses) {
+        SqlParameterSource[] rows = addresses.stream()
+                .map(address -> new MapSqlParameterSource()
+                        .addValue("street", address.getStreet())
+                        .addValue("city", address.getCity())
+                        .addValue("state", address.getState())
+                        .addValue("country", address.getCountry())
+                        .addValue("postalCode", address.getPostalCode())
+                        .addValue("userId", address.getUserId()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_ADDRESS, rows);
+    }
+}
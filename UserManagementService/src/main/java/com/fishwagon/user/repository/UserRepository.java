@@ -1,13 +1,49 @@
 package com.fishwagon.user.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.fishwagon.user.dto.UserAuthDTO;
+import com.fishwagon.user.dto.UserSummaryDTO;
+import jakarta.persistence.QueryHint;
 import com.fishwagon.user.model.UserEntity;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
 	Optional<UserEntity> findByUsername(String username);
-    
+
+    /*Loads username, password hash and role name in one joined query,
+     * instead of findByUsername followed by RoleRepository.findById.*/
+    @Query("SELECT new com.fishwagon.user.dto.UserAuthDTO(u.username, u.password, u.roleId, r.roleName) "
+            + "FROM UserEntity u, Role r WHERE r.id = u.roleId AND u.username = :username")
+    Optional<UserAuthDTO> findAuthByUsername(@Param("username") String username);
+
+    // Which of these usernames are already taken (bulk import pre-check)
+    @Query("SELECT u.username FROM UserEntity u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /*Keyset page: users with id > afterId in id order, seeking on the primary key
+     * instead of OFFSET, so every page costs the same. Password is not selected.*/
+    @Query("SELECT new com.fishwagon.user.dto.UserSummaryDTO(u.id, u.username, u.mobile, u.profilePic, u.createdAt, u.roleId) "
+            + "FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDTO> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /*All users as a forward-only stream for exports. Must be consumed inside a transaction
+     * and closed; with useCursorFetch on the JDBC URL MySQL sends fetchSize rows at a time.*/
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.fishwagon.user.dto.UserSummaryDTO(u.id, u.username, u.mobile, u.profilePic, u.createdAt, u.roleId) "
+            + "FROM UserEntity u ORDER BY u.id")
+    Stream<UserSummaryDTO> streamAllSummaries();
+
 }
@@ -1,8 +1,9 @@
 package com.fishwagon.user.security;
 
 import java.util.List;
-import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,42 +11,30 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.fishwagon.user.model.Role;
-import com.fishwagon.user.model.UserEntity;
-import com.fishwagon.user.repository.RoleRepository;
-import com.fishwagon.user.repository.UserRepository;
+import com.fishwagon.user.dto.UserAuthDTO;
+import com.fishwagon.user.service.UserAuthLookup;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
-    public CustomUserDetailsService(UserRepository userRepository, RoleRepository roleRepository) {
-        this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+    private final UserAuthLookup userAuthLookup;
+
+    public CustomUserDetailsService(UserAuthLookup userAuthLookup) {
+        this.userAuthLookup = userAuthLookup;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity user = userRepository.findByUsername(username)
+        // ✅ User and role name come back from a single joined query, shared by concurrent lookups
+        UserAuthDTO user = userAuthLookup.findAuthByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        System.out.println("✅ Found User: " + user.getUsername());
-        System.out.println("✅ Password from DB: " + user.getPassword());
-
-        Optional<Role> roleOptional = roleRepository.findById(user.getRoleId());
-
-        if (roleOptional.isPresent()) {
-            System.out.println("✅ Fetched Role: " + roleOptional.get().getRoleName());
-        } else {
-            System.out.println("⚠️ Role ID " + user.getRoleId() + " not found in user_roles table!");
-        }
+        logger.debug("✅ Found User: {} with role {}", user.getUsername(), user.getRoleName());
 
         // ✅ Ensure role has "ROLE_" prefix
-        String roleName = roleOptional.map(Role::getRoleName)
-                .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)  
-                .orElseThrow(() -> new UsernameNotFoundException("⚠️ Role ID " + user.getRoleId() + " not found!"));
+        String roleName = user.getRoleName().startsWith("ROLE_") ? user.getRoleName() : "ROLE_" + user.getRoleName();
 
         return new User(user.getUsername(), user.getPassword(), List.of(new SimpleGrantedAuthority(roleName)));
     }
@@ -0,0 +1,43 @@
+package com.fishwagon.user.security;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-memory list of usernames whose outstanding tokens must no longer be accepted.
+ *
+ * Used by JwtFilter in stateless mode, where the database is not consulted on each
+ * request. Entries only need to live as long as the tokens issued before the user
+ * was disabled, so they expire after jwt.revocation-check.ttl.
+ */
+@Component
+public class DisabledUserCache {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> disabledUsers;
+
+    public DisabledUserCache(JwtConfig jwtConfig) {
+        JwtConfig.RevocationCheck settings = jwtConfig.getRevocationCheck();
+        this.enabled = settings.isEnabled();
+        this.disabledUsers = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .build();
+    }
+
+    public void disable(String username) {
+        if (enabled) {
+            disabledUsers.put(username, Boolean.TRUE);
+        }
+    }
+
+    public void enable(String username) {
+        disabledUsers.invalidate(username);
+    }
+
+    public boolean isDisabled(String username) {
+        return enabled && disabledUsers.getIfPresent(username) != null;
+    }
+}
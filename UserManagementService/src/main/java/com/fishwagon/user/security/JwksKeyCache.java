@@ -0,0 +1,145 @@
+package com.fishwagon.user.security;
+
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * In-memory copy of the AuthenticationService JWKS, keyed by kid.
+ *
+ * Tokens are verified against the current immutable map only; it is replaced
+ * by a background refresh every jwt.jwks.refresh-interval and, when a token
+ * names an unknown kid, by at most one synchronous refetch per
+ * jwt.jwks.unknown-kid-min-interval.
+ */
+@Component
+public class JwksKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final RestClient restClient;
+    private final JwtConfig.Jwks settings;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile String etag;
+    private long lastUnknownKidRefresh;  // guarded by refreshLock
+
+    public JwksKeyCache(RestClient.Builder restClientBuilder, JwtConfig jwtConfig) {
+        this.settings = jwtConfig.getJwks();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(settings.getTimeout());
+        requestFactory.setReadTimeout(settings.getTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    /**
+     * @return the verification key for the kid, or null if the current key set does not contain it
+     */
+    public PublicKey getKey(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.jwks.refresh-interval:PT5M}", initialDelay = 0)
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Refetches the key set after a token with an unknown kid was seen, unless
+     * that already happened within jwt.jwks.unknown-kid-min-interval. Callers
+     * arriving during a refetch wait for it instead of starting their own.
+     *
+     * @return the key for the kid after the refetch, or null if still unknown
+     */
+    public PublicKey refreshForUnknownKid(String kid) {
+        refreshLock.lock();
+        try {
+            PublicKey key = getKey(kid);
+            long now = System.nanoTime();
+            if (key == null && (lastUnknownKidRefresh == 0
+                    || now - lastUnknownKidRefresh >= settings.getUnknownKidMinInterval().toNanos())) {
+                lastUnknownKidRefresh = now;
+                fetch();
+                key = getKey(kid);
+            }
+            return key;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the cached keys with the RSA signature keys of the given set.
+     */
+    public void setKeys(JWKSet jwkSet) {
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk instanceof RSAKey rsaKey && jwk.getKeyID() != null
+                    && (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                try {
+                    loaded.put(jwk.getKeyID(), rsaKey.toRSAPublicKey());
+                } catch (JOSEException e) {
+                    logger.warn("Skipping unusable JWKS key {}: {}", jwk.getKeyID(), e.getMessage());
+                }
+            }
+        }
+        if (!loaded.keySet().equals(keys.keySet())) {
+            logger.info("JWKS loaded with key ids {}", loaded.keySet());
+        }
+        keys = Map.copyOf(loaded);
+    }
+
+    // Never throws: on any failure the previous keys stay in place
+    private void fetch() {
+        try {
+            restClient.get()
+                    .uri(settings.getUri())
+                    .headers(headers -> {
+                        if (etag != null && !keys.isEmpty()) {
+                            headers.setIfNoneMatch(etag);
+                        }
+                    })
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                            return null;
+                        }
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new IllegalStateException("HTTP " + response.getStatusCode().value());
+                        }
+                        try {
+                            setKeys(JWKSet.parse(response.bodyTo(String.class)));
+                        } catch (ParseException e) {
+                            throw new IllegalStateException("Unparseable JWKS: " + e.getMessage(), e);
+                        }
+                        etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            logger.warn("JWKS refresh from {} failed, keeping {} cached keys: {}",
+                    settings.getUri(), keys.size(), e.toString());
+        }
+    }
+}
@@ -1,19 +1,141 @@
 package com.fishwagon.user.security;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
 @Component  // ✅ Ensure Spring recognizes this as a bean
-@ConfigurationProperties(prefix = "jwt")  // ✅ Binds `jwt.secret` from application.yml
+@ConfigurationProperties(prefix = "jwt")  // ✅ Binds `jwt.*` from application.yml
 public class JwtConfig {
 
-    private String secret;
+    // ✅ When true, authorities come from the token's `roles` claim instead of the database
+    private boolean statelessAuthorization = false;
+
+    // ✅ Binds `jwt.revocation-check.*`
+    private final RevocationCheck revocationCheck = new RevocationCheck();
+
+    // ✅ Binds `jwt.jwks.*`
+    private final Jwks jwks = new Jwks();
+
+    public boolean isStatelessAuthorization() {
+        return statelessAuthorization;
+    }
+
+    public void setStatelessAuthorization(boolean statelessAuthorization) {
+        this.statelessAuthorization = statelessAuthorization;
+    }
+
+    public RevocationCheck getRevocationCheck() {
+        return revocationCheck;
+    }
+
+    public Jwks getJwks() {
+        return jwks;
+    }
+
+    /**
+     * Cache-backed check that rejects tokens of users deleted after the token was issued.
+     */
+    public static class RevocationCheck {
+
+        private boolean enabled = true;
+
+        // How long a disabled user is remembered; should cover the longest token lifetime
+        private Duration ttl = Duration.ofHours(1);
+
+        private long maxSize = 100_000;
+
+        // AuthenticationService, resolved through discovery; told to revoke the tokens of deleted users
+        private String authServiceUri = "http://AuthenticationService";
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
 
-    public String getSecret() {
-        return secret;
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public String getAuthServiceUri() {
+            return authServiceUri;
+        }
+
+        public void setAuthServiceUri(String authServiceUri) {
+            this.authServiceUri = authServiceUri;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
     }
 
-    public void setSecret(String secret) {
-        this.secret = secret;
+    /**
+     * Source of the RS256 public keys that tokens are verified with.
+     */
+    public static class Jwks {
+
+        private String uri = "http://localhost:8081/.well-known/jwks.json";
+
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        // A token with an unknown kid triggers at most one extra fetch per interval
+        private Duration unknownKidMinInterval = Duration.ofSeconds(30);
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        public String getUri() {
+            return uri;
+        }
+
+        public void setUri(String uri) {
+            this.uri = uri;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getUnknownKidMinInterval() {
+            return unknownKidMinInterval;
+        }
+
+        public void setUnknownKidMinInterval(Duration unknownKidMinInterval) {
+            this.unknownKidMinInterval = unknownKidMinInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
     }
 }
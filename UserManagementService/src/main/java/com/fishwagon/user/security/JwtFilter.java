@@ -7,14 +7,20 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.jwt.VerifiedToken;
+
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
@@ -23,11 +29,24 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final JwtConfig jwtConfig;
+    private final DisabledUserCache disabledUserCache;
+    private final GatewayAssertionProperties gatewayAssertionProperties;
 
     // Constructor injection of dependencies
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, JwtConfig jwtConfig,
+            DisabledUserCache disabledUserCache, GatewayAssertionProperties gatewayAssertionProperties) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.jwtConfig = jwtConfig;
+        this.disabledUserCache = disabledUserCache;
+        this.gatewayAssertionProperties = gatewayAssertionProperties;
+    }
+
+    // In trusted-gateway mode GatewayAssertionFilter authenticates instead; the token was verified at the gateway
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return gatewayAssertionProperties.isEnabled();
     }
 
     @Override
@@ -40,6 +59,12 @@ public class JwtFilter extends OncePerRequestFilter {
         logger.debug("Request Method: {}", request.getMethod());
         logger.debug("Authorization Header: {}", request.getHeader("Authorization"));
 
+        // Already authenticated by a service assertion (AuthenticationService calling /users/internal/**)
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
         // Skip authentication for public endpoints
         if (requestURI.startsWith("/users/public/")) {
             logger.debug("Public endpoint detected, skipping authentication: {}", requestURI);
@@ -64,17 +89,27 @@ public class JwtFilter extends OncePerRequestFilter {
             // Extract the JWT token
             String token = authHeader.substring(7); // Remove "Bearer " prefix
             
-            // Extract username from token
-            String username = jwtUtil.extractUsername(token);
+            // Verify the token once; everything below uses the parsed result
+            VerifiedToken verified = jwtUtil.verify(token);
+            String username = verified.getSubject();
             logger.debug("User Name Extracted is "+username);
 
+            // Reject tokens of users disabled after the token was issued (cache lookup, no DB)
+            if (username != null && disabledUserCache.isDisabled(username)) {
+                logger.warn("Token presented for disabled user: {}", username);
+                sendUnauthorizedError(response, "User Disabled");
+                return;
+            }
+
             // Proceed with authentication if username is present and no existing authentication
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Stateless mode builds the user from the verified claims; otherwise load it from the database
+                UserDetails userDetails = jwtConfig.isStatelessAuthorization()
+                        ? userDetailsFromClaims(verified)
+                        : userDetailsService.loadUserByUsername(username);
 
                 // Comprehensive token validation
-                if (jwtUtil.validateToken(token, userDetails)) {
+                if (jwtUtil.validateToken(verified, userDetails)) {
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(
@@ -107,6 +142,22 @@ public class JwtFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * Build user details from an already verified token, without touching the database.
+     * The token's `roles` claim is the source of the granted authorities.
+     *
+     * @param verified Verified token
+     * @return UserDetails carrying the token's subject and roles
+     */
+    private UserDetails userDetailsFromClaims(VerifiedToken verified) {
+        List<SimpleGrantedAuthority> authorities = verified.getRoles().stream()
+                // ✅ Ensure role has "ROLE_" prefix
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new User(verified.getSubject(), "", authorities);
+    }
+
     /**
      * Send a structured unauthorized error response
      * 
@@ -1,45 +1,66 @@
 package com.fishwagon.user.security;
 
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
-import java.util.Date;
+import java.security.PublicKey;
 
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+
+import com.fishwagon.common.jwt.VerifiedToken;
 
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 @Component
 public class JwtUtil {
-	 private static final String SECRET_KEY = "your-secret-key-must-be-long-enough"; 
-	 private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+	 // ✅ Built once: the parser is immutable and safe to share between requests.
+	 // RS256 public keys come from the cached JWKS, selected by the token's kid header.
+	 private final JwtParser jwtParser;
     
-    private final JwtConfig jwtConfig;
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
     
-    public JwtUtil(JwtConfig jwtConfig) {
-        this.jwtConfig = jwtConfig;
-    }
-    
-    public Key getSigningKey() {
-        
-        return SIGNING_KEY;
+    public JwtUtil(JwksKeyCache jwksKeyCache) {
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String kid = header.getKeyId();
+                        PublicKey key = jwksKeyCache.getKey(kid);
+                        if (key == null && kid != null) {
+                            key = jwksKeyCache.refreshForUnknownKid(kid);  // Rate-limited refetch after a key rotation
+                        }
+                        if (key == null) {
+                            throw new JwtException("No JWKS key for kid " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
     
     public String extractUsername(String token) {
         return getAllClaimsFromToken(token).getSubject();
     }
     
+    /**
+     * Verify the token signature once and return its subject, roles and expiry.
+     * Filters consume the returned value instead of re-parsing the token.
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.fromClaims(getAllClaimsFromToken(token));
+    }
+    
     public boolean validateToken(String token, String username) {
         try {
-            String extractedUsername = extractUsername(token);
-            return extractedUsername.equals(username) && !isTokenExpired(token);
+            VerifiedToken verified = verify(token);
+            return verified.getSubject().equals(username) && !verified.isExpired();
         } catch (Exception e) {
             return false;
         }
@@ -47,12 +68,7 @@ public class JwtUtil {
     
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            // Extract userName from token
-            String extractedUsername = extractUsername(token);
-            
-            // Validate userName matches and token is not expired
-            return extractedUsername.equals(userDetails.getUsername()) 
-                   && !isTokenExpired(token);
+            return validateToken(verify(token), userDetails);
         } catch (Exception e) {
             // Log the validation error
             logger.error("Token validation failed", e);
@@ -60,23 +76,17 @@ public class JwtUtil {
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return getAllClaimsFromToken(token).getExpiration().before(new Date());
+    public boolean validateToken(VerifiedToken verified, UserDetails userDetails) {
+        // Validate userName matches and token is not expired
+        return userDetails.getUsername().equals(verified.getSubject()) 
+               && !verified.isExpired();
     }
 
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())  // ✅ Use `jwtUtil` method
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return getAllClaimsFromToken(token);
     }
 }
@@ -1,23 +1,36 @@
 package com.fishwagon.user.security;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.fishwagon.common.assertion.GatewayAssertion;
+import com.fishwagon.common.assertion.GatewayAssertionCodec;
+import com.fishwagon.common.assertion.GatewayAssertionFilter;
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.hashing.PasswordHashingService;
+
 @Configuration
 @EnableMethodSecurity  // ✅ Enable @PreAuthorize on controllers
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final GatewayAssertionFilter gatewayAssertionFilter;  // ✅ Replaces jwtFilter when gateway-assertion.enabled
 
-    public SecurityConfig(JwtFilter jwtFilter) {
+    public SecurityConfig(JwtFilter jwtFilter, GatewayAssertionCodec gatewayAssertionCodec,
+            GatewayAssertionProperties gatewayAssertionProperties, DisabledUserCache disabledUserCache) {
         this.jwtFilter = jwtFilter;
+        // ✅ Users deleted here after their token was issued are refused even with a valid assertion
+        this.gatewayAssertionFilter = new GatewayAssertionFilter(gatewayAssertionCodec, gatewayAssertionProperties,
+                disabledUserCache::isDisabled);
     }
 
     @Bean
@@ -26,12 +39,17 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())  // ✅ Disable CSRF for APIs
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))  // ✅ Stateless JWT auth
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/auth/public/**").permitAll()  // ✅ Public endpoints
-                .requestMatchers("/users/public/**").permitAll() 
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()  // ✅ Streamed responses were authorized on the original request
+                .requestMatchers("/users/internal/**").hasAuthority(GatewayAssertion.SERVICE_ROLE)  // 🔒 Other services only
+                .requestMatchers("/auth/public/**").permitAll()  // ✅ Public endpoints, each listed explicitly
+                .requestMatchers(HttpMethod.GET, "/users/public/test", "/users/public/roles",
+                        "/users/public/getRoleName/*").permitAll()
+                .requestMatchers(HttpMethod.POST, "/users/public/createUser").permitAll()
                 .requestMatchers("/users/admin/**").hasAnyAuthority("ROLE_ADMIN")  // 🔒 Restricted to ADMIN only
                 .requestMatchers("/users/manager/**").hasAnyAuthority("ROLE_ADMIN", "ROLE_MANAGER")  // 🔒 Admin & Manager
                 .anyRequest().authenticated() 
             )
+            .addFilterBefore(gatewayAssertionFilter, UsernamePasswordAuthenticationFilter.class)  // ✅ Trusted-gateway mode
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);  // ✅ Use JWT filter
 
         return http.build();
@@ -40,7 +58,8 @@ public class SecurityConfig {
 
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
+        // ✅ One BCrypt encoder at the calibrated cost, run on the bounded password-hashing pool
+        return passwordHashingService.getPasswordEncoder();
     }
 }
@@ -0,0 +1,33 @@
+package com.fishwagon.user.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "users.bulk-import")  // Maps to users.bulk-import.* in application.yml
+public class BulkImportProperties {
+
+    // Rows hashed, inserted and committed together; one transaction and one JDBC batch per chunk
+    private int chunkSize = 500;
+
+    // How long one import may stream; independent of spring.mvc.async.request-timeout, which bounds exports
+    private Duration timeout = Duration.ofHours(2);
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
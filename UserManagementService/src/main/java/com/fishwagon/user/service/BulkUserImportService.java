@@ -0,0 +1,245 @@
+package com.fishwagon.user.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fishwagon.common.hashing.PasswordHashingService;
+import com.fishwagon.user.dto.ImportEventDTO;
+import com.fishwagon.user.dto.UserRegistrationDTO;
+import com.fishwagon.user.model.Address;
+import com.fishwagon.user.model.UserEntity;
+import com.fishwagon.user.repository.UserBatchWriter;
+import com.fishwagon.user.repository.UserRepository;
+import com.fishwagon.user.security.DisabledUserCache;
+
+/**
+ * Imports users from NDJSON (one UserRegistrationDTO per line) in chunks.
+ *
+ * Per chunk: rows are validated and checked against existing usernames, passwords
+ * are hashed in parallel on the hashing pool, then users and addresses are written
+ * as JDBC batches in one transaction. If the batch fails (e.g. a username taken
+ * concurrently), the chunk is retried row by row so only the offending rows fail.
+ * Errors and progress are reported through the event consumer as they happen.
+ */
+@Service
+public class BulkUserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    private final UserRepository userRepository;
+    private final UserBatchWriter userBatchWriter;
+    private final RoleRegistry roleRegistry;
+    private final PasswordHashingService passwordHashingService;
+    private final DisabledUserCache disabledUserCache;
+    private final BulkImportProperties properties;
+    private final TransactionTemplate transaction;
+    private final ObjectReader rowReader;
+
+    public BulkUserImportService(UserRepository userRepository, UserBatchWriter userBatchWriter,
+            RoleRegistry roleRegistry, PasswordHashingService passwordHashingService,
+            DisabledUserCache disabledUserCache, BulkImportProperties properties,
+            PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userBatchWriter = userBatchWriter;
+        this.roleRegistry = roleRegistry;
+        this.passwordHashingService = passwordHashingService;
+        this.disabledUserCache = disabledUserCache;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rowReader = objectMapper.readerFor(UserRegistrationDTO.class);
+    }
+
+    /**
+     * Reads the whole input, importing it chunk by chunk. A summary event is always sent last.
+     */
+    public void importUsers(BufferedReader input, Consumer<ImportEventDTO> events) throws IOException {
+        Progress progress = new Progress();
+        List<ImportRow> chunk = new ArrayList<>(properties.getChunkSize());
+        int lineNumber = 0;
+
+        String line;
+        while ((line = input.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(new ImportRow(lineNumber, rowReader.readValue(line)));
+            } catch (JsonProcessingException e) {
+                progress.processed++;
+                progress.fail(events, ImportEventDTO.error(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage()));
+            }
+            if (chunk.size() >= properties.getChunkSize()) {
+                importChunk(chunk, progress, events);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress, events);
+        }
+        events.accept(ImportEventDTO.summary(progress.processed, progress.imported, progress.failed));
+    }
+
+    private void importChunk(List<ImportRow> chunk, Progress progress, Consumer<ImportEventDTO> events) {
+        List<ImportRow> valid = validate(chunk, progress, events);
+
+        if (!valid.isEmpty()) {
+            List<String> hashes = passwordHashingService.encodeAll(
+                    valid.stream().map(row -> row.request.getPassword()).toList());
+            for (int i = 0; i < valid.size(); i++) {
+                valid.get(i).encodedPassword = hashes.get(i);
+            }
+
+            try {
+                transaction.executeWithoutResult(status -> write(valid));
+                valid.forEach(progress::succeed);
+            } catch (DataAccessException e) {
+                logger.warn("Batch insert of {} users failed, retrying row by row: {}", valid.size(), e.getMessage());
+                for (ImportRow row : valid) {
+                    try {
+                        transaction.executeWithoutResult(status -> write(List.of(row)));
+                        progress.succeed(row);
+                    } catch (DataAccessException rowError) {
+                        progress.fail(events, ImportEventDTO.error(row.line, row.request.getUsername(),
+                                "Insert failed: " + rowError.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+            // Re-imported usernames must not stay blocked by an earlier deletion
+            valid.stream().filter(row -> row.imported)
+                    .forEach(row -> disabledUserCache.enable(row.request.getUsername()));
+        }
+
+        progress.processed += chunk.size();
+        events.accept(ImportEventDTO.progress(progress.processed, progress.imported, progress.failed));
+    }
+
+    private List<ImportRow> validate(List<ImportRow> chunk, Progress progress, Consumer<ImportEventDTO> events) {
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        Set<String> seen = new HashSet<>();
+        for (ImportRow row : chunk) {
+            String error = missingField(row.request);
+            if (error == null && roleRegistry.findRoleName(row.request.getRoleId()).isEmpty()) {
+                error = "Role not found: " + row.request.getRoleId();
+            }
+            if (error == null && !seen.add(row.request.getUsername())) {
+                error = "Duplicate username in import";
+            }
+            if (error != null) {
+                progress.fail(events, ImportEventDTO.error(row.line,
+                        row.request == null ? null : row.request.getUsername(), error));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        // One IN query per chunk instead of a lookup per row
+        Set<String> taken = new HashSet<>(userRepository.findExistingUsernames(seen));
+        List<ImportRow> valid = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (taken.contains(row.request.getUsername())) {
+                progress.fail(events, ImportEventDTO.error(row.line, row.request.getUsername(), "Username already exists"));
+            } else {
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    private static String missingField(UserRegistrationDTO request) {
+        if (request == null) {
+            return "row is empty";
+        }
+        if (request.getUsername() == null || request.getUsername().isBlank()) {
+            return "username is required";
+        }
+        if (request.getPassword() == null || request.getPassword().isEmpty()) {
+            return "password is required";
+        }
+        if (request.getMobile() == null) {
+            return "mobile is required";
+        }
+        if (request.getProfilePic() == null) {
+            return "profilePic is required";
+        }
+        if (request.getRoleId() == null) {
+            return "roleId is required";
+        }
+        return null;
+    }
+
+    private void write(List<ImportRow> rows) {
+        List<UserEntity> users = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            UserRegistrationDTO req = row.request;
+            UserEntity user = new UserEntity();
+            user.setUsername(req.getUsername());
+            user.setPassword(row.encodedPassword);
+            user.setMobile(req.getMobile());
+            user.setProfilePic(req.getProfilePic());
+            user.setCreatedAt(LocalDate.now());
+            user.setRoleId(req.getRoleId());
+            row.user = user;
+            users.add(user);
+        }
+        userBatchWriter.insertUsers(users);
+
+        List<Address> addresses = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            UserRegistrationDTO req = row.request;
+            addresses.add(new Address(req.getStreet(), req.getCity(), req.getState(), req.getCountry(),
+                    req.getPostalCode(), row.user.getId()));
+        }
+        userBatchWriter.insertAddresses(addresses);
+    }
+
+    private static final class ImportRow {
+
+        private final int line;
+        private final UserRegistrationDTO request;
+        private String encodedPassword;
+        private UserEntity user;
+        private boolean imported;
+
+        private ImportRow(int line, UserRegistrationDTO request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    private static final class Progress {
+
+        private int processed;
+        private int imported;
+        private int failed;
+
+        private void succeed(ImportRow row) {
+            row.imported = true;
+            imported++;
+        }
+
+        private void fail(Consumer<ImportEventDTO> events, ImportEventDTO error) {
+            failed++;
+            events.accept(error);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.fishwagon.user.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "users.registration")  // Maps to users.registration.* in application.yml
+public class RegistrationProperties {
+
+    // 🔒 Role of every self-registered account; the roleId in the request is ignored
+    private String defaultRole = "USER";
+
+    public String getDefaultRole() {
+        return defaultRole;
+    }
+
+    public void setDefaultRole(String defaultRole) {
+        this.defaultRole = defaultRole;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fishwagon.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fishwagon.user.event.RoleChangedEvent;
+import com.fishwagon.user.model.Role;
+import com.fishwagon.user.repository.RoleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory copy of the user_roles table.
+ *
+ * The table is tiny and rarely changes, so it is loaded at startup and every
+ * role lookup is served from an immutable snapshot without touching JPA. The
+ * snapshot is rebuilt after any role is saved or deleted through JPA, and on a
+ * fixed schedule to pick up changes made directly in the database.
+ */
+@Component
+@DependsOnDatabaseInitialization  // ✅ Loads after SQL init scripts (the embedded profile seeds the roles)
+public class RoleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(RoleChangedEvent event) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${roles.registry.refresh-interval:PT5M}",
+            initialDelayString = "${roles.registry.refresh-interval:PT5M}")
+    public void refresh() {
+        Map<Long, String> names = new TreeMap<>();
+        for (Role role : roleRepository.findAll()) {
+            names.put(role.getId(), role.getRoleName());
+        }
+        Snapshot updated = new Snapshot(names);
+        if (!updated.etag.equals(snapshot.etag)) {
+            logger.info("Role registry loaded {} roles (etag {})", names.size(), updated.etag);
+        }
+        snapshot = updated;
+    }
+
+    public Optional<String> findRoleName(Long roleId) {
+        return Optional.ofNullable(snapshot.namesById.get(roleId));
+    }
+
+    /**
+     * @param roleName role name, case-insensitive, with or without the ROLE_ prefix
+     */
+    public Optional<Long> findRoleId(String roleName) {
+        String name = roleName.regionMatches(true, 0, ROLE_PREFIX, 0, ROLE_PREFIX.length())
+                ? roleName.substring(ROLE_PREFIX.length()) : roleName;
+        return snapshot.namesById.entrySet().stream()
+                .filter(role -> role.getValue().equalsIgnoreCase(name))
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    /**
+     * @return all roles keyed by id, in id order
+     */
+    public Map<Long, String> getRoleNames() {
+        return snapshot.namesById;
+    }
+
+    /**
+     * @return strong ETag of the current role table, changes whenever any role changes
+     */
+    public String getEtag() {
+        return snapshot.etag;
+    }
+
+    private static final class Snapshot {
+
+        private final Map<Long, String> namesById;
+        private final String etag;
+
+        private Snapshot(Map<Long, String> namesById) {
+            this.namesById = Collections.unmodifiableMap(new TreeMap<>(namesById));
+            this.etag = computeEtag(this.namesById);
+        }
+
+        private static String computeEtag(Map<Long, String> namesById) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                namesById.forEach((id, name) ->
+                        digest.update((id + "=" + name + "\n").getBytes(StandardCharsets.UTF_8)));
+                return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 8) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
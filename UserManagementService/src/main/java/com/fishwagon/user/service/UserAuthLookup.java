@@ -0,0 +1,48 @@
+package com.fishwagon.user.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.fishwagon.common.concurrent.SingleFlight;
+import com.fishwagon.user.dto.UserAuthDTO;
+import com.fishwagon.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Username lookups behind authentication: CustomUserDetailsService and the
+ * /users/internal/find*ByUsername endpoints AuthenticationService logs in with.
+ *
+ * Concurrent lookups of the same username share one query, which flattens the
+ * bursts of identical lookups after a gateway restart or a token expiry wave.
+ * Results are shared between the waiting callers, so they must not be modified.
+ */
+@Service
+public class UserAuthLookup {
+
+    private final UserRepository userRepository;
+    private final SingleFlight<String, Optional<UserAuthDTO>> userLookups;
+    private final SingleFlight<String, Optional<UserAuthDTO>> authLookups;
+
+    public UserAuthLookup(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.userLookups = new SingleFlight<>("find-by-username", meterRegistry);
+        this.authLookups = new SingleFlight<>("find-auth-by-username", meterRegistry);
+    }
+
+    /**
+     * @return username, password hash and role id, without the role name
+     */
+    public Optional<UserAuthDTO> findByUsername(String username) {
+        return userLookups.execute(username, key -> userRepository.findByUsername(key)
+                .map(user -> new UserAuthDTO(user.getUsername(), user.getPassword(), user.getRoleId())));
+    }
+
+    /**
+     * @return username, password hash, role id and role name from one joined query
+     */
+    public Optional<UserAuthDTO> findAuthByUsername(String username) {
+        return authLookups.execute(username, userRepository::findAuthByUsername);
+    }
+}
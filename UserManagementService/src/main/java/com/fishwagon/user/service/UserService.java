@@ -4,17 +4,26 @@ package com.fishwagon.user.service;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fishwagon.common.hashing.PasswordHashingService;
+import com.fishwagon.user.client.AuthRevocationClient;
+import com.fishwagon.user.dto.UserPageDTO;
 import com.fishwagon.user.dto.UserRegistrationDTO;
+import com.fishwagon.user.dto.UserSummaryDTO;
 import com.fishwagon.user.model.Address;
-import com.fishwagon.user.model.Role;
 import com.fishwagon.user.model.UserEntity;
 import com.fishwagon.user.repository.AddressRepository;
-import com.fishwagon.user.repository.RoleRepository;
 import com.fishwagon.user.repository.UserRepository;
-import com.fishwagon.user.utils.HelperMethods;
+import com.fishwagon.user.security.DisabledUserCache;
 
 import jakarta.transaction.Transactional;
 
@@ -23,16 +32,45 @@ public class UserService {
 	
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final RegistrationProperties registrationProperties;
+    private final DisabledUserCache disabledUserCache;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthRevocationClient authRevocationClient;
+    private final TransactionTemplate readOnlyTransaction;
 
     public UserService(UserRepository userRepository, AddressRepository addressRepository,
-    		RoleRepository roleRepository) {
+    		RoleRegistry roleRegistry, RegistrationProperties registrationProperties, DisabledUserCache disabledUserCache,
+    		PasswordHashingService passwordHashingService, AuthRevocationClient authRevocationClient,
+    		PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
 		this.addressRepository = addressRepository;
-		this.roleRepository = roleRepository;
+		this.roleRegistry = roleRegistry;
+		this.registrationProperties = registrationProperties;
+		this.disabledUserCache = disabledUserCache;
+		this.passwordHashingService = passwordHashingService;
+		this.authRevocationClient = authRevocationClient;
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
     }
-    public List<UserEntity> getAllUsers() {
-        return userRepository.findAll();
+
+    // One keyset page; limit is clamped by the caller
+    public UserPageDTO getUserPage(long afterId, int limit) {
+        List<UserSummaryDTO> users = userRepository.findSummariesAfter(afterId, Limit.of(limit));
+        Long nextAfterId = users.size() < limit ? null : users.get(users.size() - 1).getId();
+        return new UserPageDTO(users, nextAfterId);
+    }
+
+    /**
+     * Feeds every user, in id order, to the consumer while a read-only transaction keeps
+     * the cursor open. Rows are DTOs, not managed entities, so memory stays flat.
+     */
+    public void exportUserSummaries(Consumer<UserSummaryDTO> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserSummaryDTO> users = userRepository.streamAllSummaries()) {
+                users.forEach(consumer);
+            }
+        });
     }
     public Optional<UserEntity> getUserById(Long id) {
         return userRepository.findById(id);
@@ -40,11 +78,12 @@ public class UserService {
     
     @Transactional
     public UserRegistrationDTO saveUser(UserRegistrationDTO req) {
-        // Encrypt password
-        String password = HelperMethods.bCryptPassword(req.getPassword());
-        // Validate Role Before Assigning
-        Role role = roleRepository.findById(req.getRoleId())
-            .orElseThrow(() -> new RuntimeException("Role not found!")); // 🚀 Ensure role exists
+        // Encrypt password (shared encoder, calibrated cost, bounded hashing pool)
+        String password = passwordHashingService.encode(req.getPassword());
+        // 🔒 Self-registration always gets the default role; a roleId in the request is ignored (in-memory lookup, no query)
+        String roleName = registrationProperties.getDefaultRole();
+        Long roleId = roleRegistry.findRoleId(roleName)
+            .orElseThrow(() -> new RuntimeException("Role not found: " + roleName)); // 🚀 Ensure role exists
 
         // Save UserEntity
         UserEntity userEntity = new UserEntity();
@@ -53,9 +92,11 @@ public class UserService {
         userEntity.setMobile(req.getMobile());
         userEntity.setProfilePic(req.getProfilePic());
         userEntity.setCreatedAt(LocalDate.now());
-        userEntity.setRoleId(role.getId()); // ✅ Use existing role
+        userEntity.setRoleId(roleId); // ✅ Use existing role
 
         UserEntity savedUser = userRepository.save(userEntity);
+        // A re-registered username must not stay blocked by an earlier deletion
+        disabledUserCache.enable(savedUser.getUsername());
 
         // Save Address
         Address address = new Address();
@@ -73,8 +114,8 @@ public class UserService {
         UserRegistrationDTO response = new UserRegistrationDTO();
         response.setId(savedUser.getId());
         response.setAddressId(savedAddress.getId());
-        response.setRoleId(role.getId());
-        response.setRoleName(role.getRoleName()); // ✅ Include role name in response
+        response.setRoleId(roleId);
+        response.setRoleName(roleRegistry.findRoleName(roleId).orElse(roleName)); // ✅ Include role name in response
         response.setUsername(savedUser.getUsername());
         response.setMobile(savedUser.getMobile());
         response.setProfilePic(savedUser.getProfilePic());
@@ -87,9 +128,40 @@ public class UserService {
         return response;
     }
 
+    /**
+     * Replaces the stored hash when its BCrypt cost is outside the accepted band.
+     * Called after a successful login, so the raw password must match the stored hash;
+     * nothing is hashed unless the stored cost is out of band.
+     *
+     * @return true if the password was rehashed
+     */
+    @Transactional
+    public boolean rehashPassword(String username, String rawPassword) {
+        return userRepository.findByUsername(username)
+                .filter(user -> passwordHashingService.needsRehash(user.getPassword()))
+                .filter(user -> passwordHashingService.matches(rawPassword, user.getPassword()))
+                .map(user -> {
+                    user.setPassword(passwordHashingService.encode(rawPassword));
+                    userRepository.save(user);
+                    return true;
+                })
+                .orElse(false);
+    }
 
     @Transactional
     public void deleteUser(Long userId) {
+        // Stop accepting this user's outstanding tokens (JwtFilter no longer hits the DB per request),
+        // and once the delete is committed, have AuthenticationService revoke them everywhere
+        userRepository.findById(userId).ifPresent(user -> {
+            disabledUserCache.disable(user.getUsername());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    authRevocationClient.revokeUser(user.getUsername());
+                }
+            });
+        });
+
         // Delete child records (addresses) first
         addressRepository.deleteByUserId(userId);
         
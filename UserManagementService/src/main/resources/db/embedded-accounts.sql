@@ -0,0 +1,7 @@
+-- Privileged accounts of the "embedded" profile, which self-registration cannot create.
+-- Password of both: loadtest-Passw0rd (BCrypt cost 12, the default password-hashing.cost).
+-- Only loaded by the embedded profile, whose in-memory database lives as long as the process.
+INSERT INTO users (username, password, mobile, profile_pic, created_at, role_id)
+VALUES ('lt-admin', '$2a$12$ESi5K4lDaL.8ixUeYCHVeeLnC3/4w7ehOQOtksxjZxsNCkCOkRcIa', '0000000001', '', CURRENT_DATE, 1);
+INSERT INTO users (username, password, mobile, profile_pic, created_at, role_id)
+VALUES ('lt-manager', '$2a$12$ESi5K4lDaL.8ixUeYCHVeeLnC3/4w7ehOQOtksxjZxsNCkCOkRcIa', '0000000002', '', CURRENT_DATE, 2);
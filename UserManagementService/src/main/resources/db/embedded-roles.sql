@@ -0,0 +1,4 @@
+-- Roles of the "embedded" profile; embedded-accounts.sql and fishwagon-loadtest's bulk import use these ids
+INSERT INTO user_roles (id, role_name) VALUES (1, 'ADMIN');
+INSERT INTO user_roles (id, role_name) VALUES (2, 'MANAGER');
+INSERT INTO user_roles (id, role_name) VALUES (3, 'USER');
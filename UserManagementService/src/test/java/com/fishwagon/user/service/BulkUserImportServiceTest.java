@@ -0,0 +1,173 @@
+package com.fishwagon.user.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fishwagon.common.hashing.PasswordHashingService;
+import com.fishwagon.user.dto.ImportEventDTO;
+import com.fishwagon.user.model.UserEntity;
+import com.fishwagon.user.repository.UserBatchWriter;
+import com.fishwagon.user.repository.UserRepository;
+import com.fishwagon.user.security.DisabledUserCache;
+
+class BulkUserImportServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserBatchWriter userBatchWriter = mock(UserBatchWriter.class);
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final DisabledUserCache disabledUserCache = mock(DisabledUserCache.class);
+    private final BulkImportProperties properties = new BulkImportProperties();
+    private final List<ImportEventDTO> events = new ArrayList<>();
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+
+    private BulkUserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        when(roleRegistry.findRoleName(anyLong())).thenReturn(Optional.empty());
+        when(roleRegistry.findRoleName(2L)).thenReturn(Optional.of("USER"));
+        when(userRepository.findExistingUsernames(any())).thenReturn(List.of());
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0)
+                .stream().map(raw -> "hash:" + raw).toList());
+        doAnswer(invocation -> {
+            List<UserEntity> users = invocation.getArgument(0);
+            insertedBatches.add(users.stream().map(UserEntity::getUsername).toList());
+            return null;
+        }).when(userBatchWriter).insertUsers(anyList());
+
+        properties.setChunkSize(10);
+        service = new BulkUserImportService(userRepository, userBatchWriter, roleRegistry, passwordHashingService,
+                disabledUserCache, properties, mock(PlatformTransactionManager.class), new ObjectMapper());
+    }
+
+    @Test
+    void importsValidRowsInOneBatchWithHashedPasswords() throws Exception {
+        run(row("alice"), row("bob"));
+
+        assertThat(insertedBatches).containsExactly(List.of("alice", "bob"));
+        assertThat(summary().getImported()).isEqualTo(2);
+        assertThat(summary().getFailed()).isZero();
+        verify(disabledUserCache).enable("alice");
+        verify(disabledUserCache).enable("bob");
+    }
+
+    @Test
+    void reportsInvalidRowsAndImportsTheRest() throws Exception {
+        run(row("alice"),
+                "{\"username\":\"bob\",\"mobile\":\"1\",\"profilePic\":\"p\",\"roleId\":2}",
+                "{\"username\":\"carol\",\"password\":\"pw\",\"mobile\":\"1\",\"profilePic\":\"p\",\"roleId\":9}",
+                "{not json",
+                "",
+                row("dave"));
+
+        // The malformed line fails as soon as it is read, the others when their chunk is validated
+        assertThat(errors()).extracting(ImportEventDTO::getLine).containsExactly(4, 2, 3);
+        assertThat(errors()).extracting(ImportEventDTO::getMessage)
+                .satisfiesExactly(
+                        message -> assertThat(message).startsWith("Malformed JSON"),
+                        message -> assertThat(message).isEqualTo("password is required"),
+                        message -> assertThat(message).isEqualTo("Role not found: 9"));
+        assertThat(insertedBatches).containsExactly(List.of("alice", "dave"));
+        assertThat(summary().getProcessed()).isEqualTo(5);  // The blank line is not a row
+        assertThat(summary().getImported()).isEqualTo(2);
+        assertThat(summary().getFailed()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsADuplicateUsernameWithinOneChunk() throws Exception {
+        run(row("alice"), row("alice"));
+
+        assertThat(errors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(2);
+            assertThat(error.getMessage()).isEqualTo("Duplicate username in import");
+        });
+        assertThat(insertedBatches).containsExactly(List.of("alice"));
+    }
+
+    @Test
+    void rejectsUsernamesThatAlreadyExist() throws Exception {
+        when(userRepository.findExistingUsernames(any())).thenReturn(List.of("bob"));
+
+        run(row("alice"), row("bob"));
+
+        assertThat(errors()).extracting(ImportEventDTO::getUsername, ImportEventDTO::getMessage)
+                .containsExactly(tuple("bob", "Username already exists"));
+        assertThat(insertedBatches).containsExactly(List.of("alice"));
+        verify(passwordHashingService).encodeAll(List.of("pw-alice"));  // Rejected rows are never hashed
+    }
+
+    @Test
+    void retriesAFailedBatchRowByRowSoOnlyTheOffendingRowFails() throws Exception {
+        // bob was registered concurrently, after the existence check
+        doAnswer(invocation -> {
+            List<UserEntity> users = invocation.getArgument(0);
+            List<String> usernames = users.stream().map(UserEntity::getUsername).toList();
+            insertedBatches.add(usernames);
+            if (usernames.contains("bob")) {
+                throw new DataIntegrityViolationException("Duplicate entry 'bob'");
+            }
+            return null;
+        }).when(userBatchWriter).insertUsers(anyList());
+
+        run(row("alice"), row("bob"), row("carol"));
+
+        assertThat(insertedBatches).containsExactly(
+                List.of("alice", "bob", "carol"), List.of("alice"), List.of("bob"), List.of("carol"));
+        assertThat(errors()).extracting(ImportEventDTO::getUsername).containsExactly("bob");
+        assertThat(errors().get(0).getMessage()).startsWith("Insert failed");
+        assertThat(summary().getImported()).isEqualTo(2);
+        assertThat(summary().getFailed()).isEqualTo(1);
+        verify(disabledUserCache, never()).enable("bob");
+        verify(passwordHashingService, times(1)).encodeAll(anyList());  // The retry reuses the hashes
+    }
+
+    @Test
+    void reportsProgressPerChunkAndTheSummaryLast() throws Exception {
+        properties.setChunkSize(2);
+
+        run(row("a"), row("b"), row("c"));
+
+        assertThat(events).extracting(ImportEventDTO::getType).containsExactly("progress", "progress", "summary");
+        assertThat(events.get(0).getProcessed()).isEqualTo(2);
+        assertThat(insertedBatches).containsExactly(List.of("a", "b"), List.of("c"));
+    }
+
+    private void run(String... lines) throws Exception {
+        service.importUsers(new BufferedReader(new StringReader(String.join("\n", lines))), events::add);
+    }
+
+    private List<ImportEventDTO> errors() {
+        return events.stream().filter(event -> "error".equals(event.getType())).toList();
+    }
+
+    private ImportEventDTO summary() {
+        return events.get(events.size() - 1);
+    }
+
+    private static String row(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"pw-" + username
+                + "\",\"mobile\":\"555\",\"profilePic\":\"p.png\",\"roleId\":2}";
+    }
+}
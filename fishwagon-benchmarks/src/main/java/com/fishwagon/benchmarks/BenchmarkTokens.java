@@ -0,0 +1,50 @@
+package com.fishwagon.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fishwagon.auth.config.JwtUtil;
+import com.fishwagon.auth.keys.SigningKeyProperties;
+import com.fishwagon.auth.keys.SigningKeyStore;
+import com.nimbusds.jose.jwk.JWKSet;
+
+/**
+ * Tokens signed exactly as AuthenticationService signs them, from a throwaway
+ * keystore, plus the public JWKS that the gateway and UserManagementService
+ * verify them with.
+ */
+final class BenchmarkTokens {
+
+    static final String USERNAME = "bench-user";
+    static final List<String> ROLES = List.of("ROLE_ADMIN");
+
+    private final SigningKeyStore signingKeyStore;
+    private final JwtUtil jwtUtil;
+
+    BenchmarkTokens() {
+        SigningKeyProperties properties = new SigningKeyProperties();
+        try {
+            properties.setKeystore(Files.createTempDirectory("fishwagon-bench-keys").resolve("signing-keys.json"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        signingKeyStore = new SigningKeyStore(properties, new ObjectMapper());
+        signingKeyStore.sync();
+        jwtUtil = new JwtUtil(signingKeyStore);
+    }
+
+    JwtUtil jwtUtil() {
+        return jwtUtil;
+    }
+
+    String issue() {
+        return jwtUtil.generateToken(USERNAME, ROLES);
+    }
+
+    JWKSet publicJwkSet() {
+        return signingKeyStore.getKeyRing().toPublicJwkSet();
+    }
+}
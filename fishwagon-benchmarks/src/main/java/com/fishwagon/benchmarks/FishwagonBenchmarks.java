@@ -0,0 +1,35 @@
+package com.fishwagon.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, except that without -rf
+ * the results are also written as JSON to jmh-result.json (or -rff), so runs
+ * from different releases can be compared by tools.
+ */
+public final class FishwagonBenchmarks {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private FishwagonBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.getResultFormat().hasValue() || commandLine.shouldHelp() || commandLine.shouldList()
+                || commandLine.shouldListWithParams() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON)
+                .result(commandLine.getResult().orElse(DEFAULT_RESULT_FILE))
+                .build()).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.fishwagon.benchmarks;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fishwagon.common.assertion.GatewayAssertionCodec;
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.common.assertion.ServiceAssertionSigner;
+import com.fishwagon.gateway.config.JwksKeyCache;
+import com.fishwagon.gateway.config.JwtAuthenticationFilter;
+import com.fishwagon.gateway.config.JwtConfig;
+import com.fishwagon.gateway.config.JwtUtil;
+import com.fishwagon.gateway.config.VerifiedTokenCache;
+import com.fishwagon.gateway.metrics.AuthMetrics;
+import com.fishwagon.gateway.policy.RoutePolicy;
+import com.fishwagon.gateway.policy.RoutePolicyMatcher;
+import com.fishwagon.gateway.policy.RoutePolicyProperties;
+import com.fishwagon.gateway.revocation.RevocationList;
+import com.fishwagon.gateway.revocation.RevocationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * JwtAuthenticationFilter.filter on a mock exchange, with an empty downstream chain.
+ *
+ * bearerToken is the steady state: the token is already in the verified-token
+ * cache, so this covers route policy lookup, cache hit, revocation check and
+ * metrics. Mock exchanges are built once (one costs far more than the filter);
+ * each call wraps its exchange with empty attributes, so every call starts like
+ * a new request and pays for the route policy lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayAuthFilterBenchmark {
+
+    private static final WebFilterChain EMPTY_CHAIN = exchange -> Mono.empty();
+
+    private JwtAuthenticationFilter filter;
+    private MockServerWebExchange bearerToken;
+    private MockServerWebExchange missingToken;
+    private MockServerWebExchange publicPath;
+
+    @Setup
+    public void setUp() {
+        BenchmarkTokens tokens = new BenchmarkTokens();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtConfig jwtConfig = new JwtConfig();
+        JwksKeyCache jwksKeyCache = new JwksKeyCache(WebClient.builder(), jwtConfig);
+        jwksKeyCache.setKeys(tokens.publicJwkSet());
+
+        filter = new JwtAuthenticationFilter(
+                new VerifiedTokenCache(new JwtUtil(jwksKeyCache), jwtConfig, meterRegistry),
+                jwksKeyCache,
+                new RevocationList(WebClient.builder(), (request, next) -> next.exchange(request),
+                        new RevocationProperties(), serviceAssertionSigner(), meterRegistry),
+                new RoutePolicyMatcher(routePolicy()),
+                new AuthMetrics(meterRegistry));
+        bearerToken = exchange("/users/42", "Bearer " + tokens.issue());
+        missingToken = exchange("/users/42", null);
+        publicPath = exchange("/users/public/test", null);
+        bearerToken();  // Warm the verified-token cache
+    }
+
+    @Benchmark
+    public Void bearerToken() {
+        return filter(bearerToken);
+    }
+
+    @Benchmark
+    public Void missingToken() {
+        return filter(missingToken);
+    }
+
+    @Benchmark
+    public Void publicPath() {
+        return filter(publicPath);
+    }
+
+    private Void filter(MockServerWebExchange exchange) {
+        return filter.filter(new FreshAttributes(exchange), EMPTY_CHAIN).block();
+    }
+
+    private static MockServerWebExchange exchange(String path, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    // Never used: the revocation list is not synced here
+    private static ServiceAssertionSigner serviceAssertionSigner() {
+        GatewayAssertionCodec codec = new GatewayAssertionCodec(Base64.getEncoder().encodeToString(new byte[32]),
+                Duration.ofSeconds(5));
+        return new ServiceAssertionSigner(codec, new GatewayAssertionProperties(), "fishwagon-benchmarks");
+    }
+
+    // Same shape as route-policy in GatewayService's application.yml
+    private static RoutePolicyProperties routePolicy() {
+        RoutePolicyProperties properties = new RoutePolicyProperties();
+        properties.setDefaultAccess(RoutePolicy.Access.AUTHENTICATED);
+        properties.setRules(List.of(
+                rule("/auth/internal/**", RoutePolicy.Access.DENY),
+                rule("/auth/public/**", RoutePolicy.Access.PUBLIC),
+                rule("/users/public/test", RoutePolicy.Access.PUBLIC),
+                rule("/users/public/createUser", RoutePolicy.Access.PUBLIC),
+                rule("/.well-known/jwks.json", RoutePolicy.Access.PUBLIC),
+                rule("/users/admin/**", RoutePolicy.Access.ROLES, "ADMIN")));
+        return properties;
+    }
+
+    private static RoutePolicyProperties.Rule rule(String pattern, RoutePolicy.Access access, String... roles) {
+        RoutePolicyProperties.Rule rule = new RoutePolicyProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setAccess(access);
+        rule.setRoles(List.of(roles));
+        return rule;
+    }
+
+    // The same request with the attributes of a new exchange (the route policy decision lives there)
+    private static final class FreshAttributes extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private FreshAttributes(ServerWebExchange delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.fishwagon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fishwagon.gateway.config.JwksKeyCache;
+import com.fishwagon.gateway.config.JwtConfig;
+import com.fishwagon.gateway.config.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The gateway's JwtUtil against keys preloaded from AuthenticationService's
+ * JWKS. This is the work behind every verified-token cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayJwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        BenchmarkTokens tokens = new BenchmarkTokens();
+        JwksKeyCache jwksKeyCache = new JwksKeyCache(WebClient.builder(), new JwtConfig());
+        jwksKeyCache.setKeys(tokens.publicJwkSet());
+        jwtUtil = new JwtUtil(jwksKeyCache);
+        token = tokens.issue();
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, BenchmarkTokens.USERNAME);
+    }
+}
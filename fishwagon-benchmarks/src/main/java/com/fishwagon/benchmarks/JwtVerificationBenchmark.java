@@ -0,0 +1,98 @@
+package com.fishwagon.benchmarks;
+
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.client.RestClient;
+
+import com.fishwagon.common.jwt.VerifiedToken;
+import com.fishwagon.user.security.JwksKeyCache;
+import com.fishwagon.user.security.JwtConfig;
+import com.fishwagon.user.security.JwtUtil;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Per-request token cost in UserManagementService's JwtFilter.
+ *
+ * rebuiltParserPerCall reproduces the original sequence (extractUsername,
+ * then validateToken -> extractUsername + isTokenExpired), which built a new
+ * parser and checked the signature three times. sharedParserSinglePass is the
+ * current path: one verify() on the shared parser, then a pure in-memory check.
+ * Tokens are RS256 with a kid, verified against a pre-loaded JwksKeyCache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private PublicKey publicKey;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyUse(KeyUse.SIGNATURE).keyID("bench-key").generate();
+        JwksKeyCache jwksKeyCache = new JwksKeyCache(RestClient.builder(), new JwtConfig());
+        jwksKeyCache.setKeys(new JWKSet(rsaKey.toPublicJWK()));
+        jwtUtil = new JwtUtil(jwksKeyCache);
+        publicKey = rsaKey.toRSAPublicKey();
+        userDetails = User.withUsername("bench-user").password("").roles("ADMIN").build();
+        token = Jwts.builder()
+                .claim("roles", List.of("ROLE_ADMIN"))
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .setHeaderParam(JwsHeader.KEY_ID, rsaKey.getKeyID())
+                .signWith(rsaKey.toRSAPrivateKey(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean rebuiltParserPerCall() {
+        String username = parseWithNewParser(token).getSubject();
+        return parseWithNewParser(token).getSubject().equals(username)
+                && userDetails.getUsername().equals(username)
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean sharedParserSinglePass() {
+        VerifiedToken verified = jwtUtil.verify(token);
+        return jwtUtil.validateToken(verified, userDetails);
+    }
+
+    private Claims parseWithNewParser(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(publicKey)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
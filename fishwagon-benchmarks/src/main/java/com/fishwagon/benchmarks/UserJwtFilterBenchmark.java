@@ -0,0 +1,98 @@
+package com.fishwagon.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.client.RestClient;
+
+import com.fishwagon.common.assertion.GatewayAssertionProperties;
+import com.fishwagon.user.dto.UserAuthDTO;
+import com.fishwagon.user.repository.UserRepository;
+import com.fishwagon.user.security.CustomUserDetailsService;
+import com.fishwagon.user.security.DisabledUserCache;
+import com.fishwagon.user.security.JwksKeyCache;
+import com.fishwagon.user.security.JwtConfig;
+import com.fishwagon.user.security.JwtFilter;
+import com.fishwagon.user.security.JwtUtil;
+import com.fishwagon.user.service.UserAuthLookup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * UserManagementService's JwtFilter on a mock request with a valid bearer token.
+ *
+ * With statelessAuthorization=false the user is loaded through the real
+ * CustomUserDetailsService, backed by a UserRepository stub that answers
+ * findAuthByUsername from memory, so the score holds no database time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJwtFilterBenchmark {
+
+    private static final FilterChain EMPTY_CHAIN = (request, response) -> { };
+
+    @Param({ "true", "false" })
+    private boolean statelessAuthorization;
+
+    private JwtFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        BenchmarkTokens tokens = new BenchmarkTokens();
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setStatelessAuthorization(statelessAuthorization);
+        JwksKeyCache jwksKeyCache = new JwksKeyCache(RestClient.builder(), jwtConfig);
+        jwksKeyCache.setKeys(tokens.publicJwkSet());
+
+        UserAuthLookup userAuthLookup = new UserAuthLookup(stubRepository(), new SimpleMeterRegistry());
+        filter = new JwtFilter(new JwtUtil(jwksKeyCache), new CustomUserDetailsService(userAuthLookup), jwtConfig,
+                new DisabledUserCache(jwtConfig), new GatewayAssertionProperties());
+        authorization = "Bearer " + tokens.issue();
+    }
+
+    @Benchmark
+    public int doFilterInternal() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/42");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, EMPTY_CHAIN);  // OncePerRequestFilter -> doFilterInternal
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static UserRepository stubRepository() {
+        UserAuthDTO user = new UserAuthDTO(BenchmarkTokens.USERNAME, "{noop}unused", 1L, "ROLE_ADMIN");
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[] { UserRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findAuthByUsername")) {
+                        return user.getUsername().equals(args[0]) ? Optional.of(user) : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,60 @@
+package com.fishwagon.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.client.RestClient;
+
+import com.fishwagon.user.security.JwksKeyCache;
+import com.fishwagon.user.security.JwtConfig;
+import com.fishwagon.user.security.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * UserManagementService's JwtUtil on tokens issued by AuthenticationService.
+ * See JwtVerificationBenchmark for the single-pass path JwtFilter uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        BenchmarkTokens tokens = new BenchmarkTokens();
+        JwksKeyCache jwksKeyCache = new JwksKeyCache(RestClient.builder(), new JwtConfig());
+        jwksKeyCache.setKeys(tokens.publicJwkSet());
+        jwtUtil = new JwtUtil(jwksKeyCache);
+        token = tokens.issue();
+        userDetails = User.withUsername(BenchmarkTokens.USERNAME).password("").roles("ADMIN").build();
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+}
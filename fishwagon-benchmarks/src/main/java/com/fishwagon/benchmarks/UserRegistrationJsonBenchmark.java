@@ -0,0 +1,60 @@
+package com.fishwagon.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fishwagon.user.dto.UserRegistrationDTO;
+
+/**
+ * Jackson (de)serialization of UserRegistrationDTO, the body of user creation
+ * and bulk import, with the ObjectMapper defaults Spring Boot applies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRegistrationJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private UserRegistrationDTO user;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(UserRegistrationDTO.class);
+        reader = objectMapper.readerFor(UserRegistrationDTO.class);
+        user = new UserRegistrationDTO(42L, "bench-user", "$2a$12$abcdefghijklmnopqrstuuJ0c8i5bGxkq0oYyBpJ8s9Fz3Xyq2bm",
+                "+15555550123", "https://cdn.example.com/p/42.png", LocalDate.of(2024, 1, 15), 2L, 7L,
+                "1 Harbour Road", "Portsmouth", "Hampshire", "UK", "PO1 3AX", "ROLE_USER");
+        json = writer.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return writer.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public UserRegistrationDTO deserialize() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+}
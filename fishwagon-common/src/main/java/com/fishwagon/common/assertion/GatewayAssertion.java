@@ -0,0 +1,185 @@
+package com.fishwagon.common.assertion;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * What the gateway (or a calling service) vouches for in the signed
+ * X-Gateway-Assertion header of one request.
+ *
+ * Every assertion names the HTTP method and raw path it was signed for, so a
+ * captured header cannot be replayed against another endpoint. A gateway
+ * assertion adds the route-policy decision (rule and access) and, for
+ * authenticated callers, the subject and roles verified from the JWT. A
+ * service assertion instead names the calling service (svc) and grants
+ * {@link #SERVICE_ROLE}.
+ *
+ * Payload: exp=&lt;epoch seconds&gt;&amp;m=&lt;method&gt;&amp;p=&lt;path&gt; followed by
+ * &amp;rule=..&amp;access=..[&amp;sub=..&amp;roles=ROLE_A,ROLE_B] or by &amp;svc=..,
+ * with URL-encoded values.
+ */
+public final class GatewayAssertion {
+
+    // Authority of callers authenticated by a service assertion
+    public static final String SERVICE_ROLE = "ROLE_SERVICE";
+
+    private final long expiresAt;
+    private final String method;
+    private final String path;
+    private final String rule;
+    private final String access;
+    private final String subject;
+    private final List<String> roles;
+    private final String service;
+
+    private GatewayAssertion(long expiresAt, String method, String path, String rule, String access,
+            String subject, List<String> roles, String service) {
+        this.expiresAt = expiresAt;
+        this.method = method;
+        this.path = path;
+        this.rule = rule;
+        this.access = access;
+        this.subject = subject;
+        this.roles = List.copyOf(roles);
+        this.service = service;
+    }
+
+    /**
+     * A request forwarded by the gateway.
+     *
+     * @param subject the verified username, or null for an anonymous caller
+     */
+    public static GatewayAssertion forRequest(long expiresAt, String method, String path, String rule, String access,
+            String subject, Collection<String> roles) {
+        return new GatewayAssertion(expiresAt, method, path, rule, access, subject,
+                subject == null ? List.of() : List.copyOf(roles), null);
+    }
+
+    /**
+     * A call from one service to another, made on the service's own behalf.
+     */
+    public static GatewayAssertion forService(long expiresAt, String method, String path, String service) {
+        return new GatewayAssertion(expiresAt, method, path, null, null, null, List.of(), service);
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    // Raw (still percent-encoded) request path, without the query string
+    public String getPath() {
+        return path;
+    }
+
+    // The route-policy pattern that matched at the gateway; null for service assertions
+    public String getRule() {
+        return rule;
+    }
+
+    // PUBLIC, AUTHENTICATED, ROLES or DENY; null for service assertions
+    public String getAccess() {
+        return access;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public boolean isService() {
+        return service != null;
+    }
+
+    String toPayload() {
+        StringBuilder payload = new StringBuilder(160)
+                .append("exp=").append(expiresAt)
+                .append("&m=").append(encode(method))
+                .append("&p=").append(encode(path));
+        if (service != null) {
+            payload.append("&svc=").append(encode(service));
+            return payload.toString();
+        }
+        payload.append("&rule=").append(encode(rule))
+                .append("&access=").append(encode(access));
+        if (subject != null) {
+            payload.append("&sub=").append(encode(subject))
+                    .append("&roles=").append(encode(String.join(",", roles)));
+        }
+        return payload.toString();
+    }
+
+    /**
+     * @return the assertion, or null when a required field is missing or malformed
+     */
+    static GatewayAssertion fromPayload(String payload) {
+        long expiresAt = -1;
+        String method = null;
+        String path = null;
+        String rule = null;
+        String access = null;
+        String subject = null;
+        String service = null;
+        List<String> roles = new ArrayList<>();
+        for (String field : payload.split("&")) {
+            int eq = field.indexOf('=');
+            if (eq < 0) {
+                return null;
+            }
+            String value = URLDecoder.decode(field.substring(eq + 1), StandardCharsets.UTF_8);
+            switch (field.substring(0, eq)) {
+                case "exp" -> expiresAt = parseSeconds(value);
+                case "m" -> method = value;
+                case "p" -> path = value;
+                case "rule" -> rule = value;
+                case "access" -> access = value;
+                case "sub" -> subject = value;
+                case "svc" -> service = value;
+                case "roles" -> {
+                    for (String role : value.split(",")) {
+                        if (!role.isEmpty()) {
+                            roles.add(role);
+                        }
+                    }
+                }
+                default -> { }  // Fields added by a newer gateway
+            }
+        }
+        if (expiresAt < 0 || method == null || path == null || (service == null && access == null)) {
+            return null;
+        }
+        return new GatewayAssertion(expiresAt, method, path, rule, access, subject, roles, service);
+    }
+
+    private static long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path + (service != null ? " svc=" + service : " " + rule + " -> " + access
+                + (subject != null ? " sub=" + subject : ""));
+    }
+}
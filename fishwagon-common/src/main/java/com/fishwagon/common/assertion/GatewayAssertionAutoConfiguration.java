@@ -0,0 +1,27 @@
+package com.fishwagon.common.assertion;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * The gateway-assertion key and signer for the gateway and every service.
+ * Startup fails when gateway-assertion.secret is missing or too short; there
+ * is deliberately no default key.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(GatewayAssertionProperties.class)
+public class GatewayAssertionAutoConfiguration {
+
+    @Bean
+    public GatewayAssertionCodec gatewayAssertionCodec(GatewayAssertionProperties properties) {
+        return new GatewayAssertionCodec(properties.getSecret(), properties.getClockSkew());
+    }
+
+    @Bean
+    public ServiceAssertionSigner serviceAssertionSigner(GatewayAssertionCodec codec,
+            GatewayAssertionProperties properties, @Value("${spring.application.name}") String service) {
+        return new ServiceAssertionSigner(codec, properties, service);
+    }
+}
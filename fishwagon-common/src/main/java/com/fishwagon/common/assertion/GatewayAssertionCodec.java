@@ -0,0 +1,102 @@
+package com.fishwagon.common.assertion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Signs and verifies {@link GatewayAssertion}s: the one implementation shared
+ * by the gateway (signing) and the backends (verifying).
+ *
+ * Value: v2.&lt;payload&gt;.&lt;mac&gt;, both base64url, where the MAC is
+ * HMAC-SHA256 over "v2." + payload with gateway-assertion.secret. Verifying
+ * costs one MAC; the payload is only decoded once the MAC matches.
+ */
+public final class GatewayAssertionCodec {
+
+    private static final String VERSION = "v2";
+    private static final String SIGNED_PREFIX = VERSION + ".";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final ThreadLocal<Mac> mac;  // Mac is stateful; one initialized instance per thread
+    private final long clockSkewSeconds;
+
+    /**
+     * @param secret base64 key of at least 32 bytes; startup fails without one
+     * @param clockSkew tolerated clock difference between the signer and this service
+     */
+    public GatewayAssertionCodec(String secret, Duration clockSkew) {
+        SecretKeySpec key = decodeKey(secret);
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+        this.clockSkewSeconds = clockSkew.toSeconds();
+    }
+
+    public String sign(GatewayAssertion assertion) {
+        String signedPart = SIGNED_PREFIX
+                + BASE64_URL.encodeToString(assertion.toPayload().getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+        return signedPart + "." + BASE64_URL.encodeToString(signature);
+    }
+
+    /**
+     * @return the assertion if the MAC matches and it has not expired, otherwise null
+     */
+    public GatewayAssertion verify(String value, long nowSeconds) {
+        int dot = value.lastIndexOf('.');
+        if (!value.startsWith(SIGNED_PREFIX) || dot <= SIGNED_PREFIX.length()) {
+            return null;
+        }
+        try {
+            byte[] expected = mac.get().doFinal(value.substring(0, dot).getBytes(StandardCharsets.US_ASCII));
+            byte[] actual = Base64.getUrlDecoder().decode(value.substring(dot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(value.substring(SIGNED_PREFIX.length(), dot)),
+                    StandardCharsets.UTF_8);
+            GatewayAssertion assertion = GatewayAssertion.fromPayload(payload);
+            if (assertion == null || assertion.getExpiresAt() + clockSkewSeconds < nowSeconds) {
+                return null;
+            }
+            return assertion;
+        } catch (IllegalArgumentException e) {
+            return null;  // Not base64url
+        }
+    }
+
+    private static SecretKeySpec decodeKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException(
+                    "gateway-assertion.secret is not configured; set GATEWAY_ASSERTION_SECRET to the base64 key "
+                            + "shared by the gateway and the services");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("gateway-assertion.secret is not valid base64", e);
+        }
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("gateway-assertion.secret must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.fishwagon.common.assertion;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates servlet requests from the signed X-Gateway-Assertion header.
+ *
+ * An assertion only counts for the method and raw path it was signed for.
+ * Service assertions are honoured in both modes and authenticate the calling
+ * service with {@link GatewayAssertion#SERVICE_ROLE}. In trusted-gateway mode
+ * (gateway-assertion.enabled) the gateway's assertion is the only way in:
+ * the caller's identity is taken from it instead of verifying the JWT again,
+ * a DENY decision is refused, and a request without the header is rejected
+ * unless its path is one of gateway-assertion.unsigned-paths. With the mode
+ * off, requests without a service assertion pass through to the JWT filter.
+ *
+ * Not a bean: each SecurityConfig builds one, so the filter runs only inside
+ * the security chain and is not registered a second time with the container.
+ */
+public class GatewayAssertionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayAssertionFilter.class);
+
+    private final GatewayAssertionCodec codec;
+    private final GatewayAssertionProperties properties;
+    private final Predicate<String> disabledUser;
+    private final List<PathPattern> unsignedPaths = new ArrayList<>();
+
+    public GatewayAssertionFilter(GatewayAssertionCodec codec, GatewayAssertionProperties properties) {
+        this(codec, properties, username -> false);
+    }
+
+    /**
+     * @param disabledUser true for users that must be refused although the gateway vouched for them
+     */
+    public GatewayAssertionFilter(GatewayAssertionCodec codec, GatewayAssertionProperties properties,
+            Predicate<String> disabledUser) {
+        this.codec = codec;
+        this.properties = properties;
+        this.disabledUser = disabledUser;
+        for (String pattern : properties.getUnsignedPaths()) {
+            unsignedPaths.add(PathPatternParser.defaultInstance.parse(pattern));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String value = request.getHeader(properties.getHeader());
+        if (value == null) {
+            if (properties.isEnabled() && !isUnsigned(request)) {
+                // 🔒 Not from the gateway nor from a service: nothing here is reachable directly
+                logger.warn("Rejected request without gateway assertion: {} {}", request.getMethod(),
+                        request.getRequestURI());
+                sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Missing Gateway Assertion");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        GatewayAssertion assertion = codec.verify(value, System.currentTimeMillis() / 1000);
+        if (assertion == null || !assertion.getMethod().equals(request.getMethod())
+                || !assertion.getPath().equals(request.getRequestURI())) {
+            logger.warn("Rejected invalid, expired or misdirected gateway assertion for {} {}", request.getMethod(),
+                    request.getRequestURI());
+            sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid Gateway Assertion");
+            return;
+        }
+
+        if (assertion.isService()) {
+            User service = new User(assertion.getService(), "",
+                    AuthorityUtils.createAuthorityList(GatewayAssertion.SERVICE_ROLE));
+            authenticate(service);
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!properties.isEnabled()) {
+            chain.doFilter(request, response);  // JWT mode: the bearer token authenticates
+            return;
+        }
+
+        // 🔒 The gateway never forwards a DENY decision; refusing it here keeps a mis-routed request out
+        if ("DENY".equalsIgnoreCase(assertion.getAccess())) {
+            logger.warn("Gateway assertion with access DENY ({}) for {}", assertion.getRule(), request.getRequestURI());
+            sendError(response, HttpServletResponse.SC_FORBIDDEN, "Denied By Route Policy");
+            return;
+        }
+        if (assertion.getSubject() == null) {
+            if (!"PUBLIC".equalsIgnoreCase(assertion.getAccess())) {
+                logger.warn("Anonymous gateway assertion for non-public rule {}", assertion.getRule());
+                sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid Gateway Assertion");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Users deleted after their token was issued (cache lookup, no remote call)
+        if (disabledUser.test(assertion.getSubject())) {
+            logger.warn("Gateway assertion for disabled user: {}", assertion.getSubject());
+            sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "User Disabled");
+            return;
+        }
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String role : assertion.getRoles()) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        authenticate(new User(assertion.getSubject(), "", authorities));
+        chain.doFilter(request, response);
+    }
+
+    private boolean isUnsigned(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : unsignedPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void authenticate(User user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static void sendError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(String.format("{\"status\":\"error\",\"message\":\"%s\"}", message));
+    }
+}
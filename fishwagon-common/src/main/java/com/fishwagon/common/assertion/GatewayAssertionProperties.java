@@ -0,0 +1,76 @@
+package com.fishwagon.common.assertion;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "gateway-assertion")  // ✅ Same keys in the gateway and every service
+public class GatewayAssertionProperties {
+
+    // ✅ Backends: when true, callers are authenticated only from the signed header; bearer tokens are not verified
+    private boolean enabled = false;
+
+    private String header = "X-Gateway-Assertion";
+
+    // 🔒 Base64 HMAC-SHA256 key shared by the gateway and the services; at least 32 bytes, no default
+    private String secret;
+
+    // Signers: lifetime of an assertion; covers clock skew and one proxied hop
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Verifiers: tolerated clock difference to the signer
+    private Duration clockSkew = Duration.ofSeconds(5);
+
+    // 🔒 Backends in trusted-gateway mode: the only paths answered without an assertion (probes, public keys)
+    private List<String> unsignedPaths = new ArrayList<>(List.of("/actuator/health", "/actuator/health/**"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getClockSkew() {
+        return clockSkew;
+    }
+
+    public void setClockSkew(Duration clockSkew) {
+        this.clockSkew = clockSkew;
+    }
+
+    public List<String> getUnsignedPaths() {
+        return unsignedPaths;
+    }
+
+    public void setUnsignedPaths(List<String> unsignedPaths) {
+        this.unsignedPaths = unsignedPaths;
+    }
+}
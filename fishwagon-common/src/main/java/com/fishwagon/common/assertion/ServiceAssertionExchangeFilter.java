@@ -0,0 +1,29 @@
+package com.fishwagon.common.assertion;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds a service assertion to every request of a WebClient; signed per
+ * request, for that request's method and path.
+ */
+public class ServiceAssertionExchangeFilter implements ExchangeFilterFunction {
+
+    private final ServiceAssertionSigner signer;
+
+    public ServiceAssertionExchangeFilter(ServiceAssertionSigner signer) {
+        this.signer = signer;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String assertion = signer.sign(request.method().name(), request.url().getRawPath());
+        return next.exchange(ClientRequest.from(request)
+                .headers(headers -> headers.set(signer.getHeader(), assertion))
+                .build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.fishwagon.common.assertion;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Blocking counterpart of {@link ServiceAssertionExchangeFilter} for RestClient
+ * and RestTemplate: adds a service assertion to every request, signed for that
+ * request's method and path.
+ */
+public class ServiceAssertionRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ServiceAssertionSigner signer;
+
+    public ServiceAssertionRequestInterceptor(ServiceAssertionSigner signer) {
+        this.signer = signer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().set(signer.getHeader(), signer.sign(request.getMethod().name(), request.getURI().getRawPath()));
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,31 @@
+package com.fishwagon.common.assertion;
+
+/**
+ * Signs the assertion a service sends with its own calls to another service
+ * (revocation sync, user lookups), so those calls pass the callee's
+ * {@link GatewayAssertionFilter} with {@link GatewayAssertion#SERVICE_ROLE}.
+ */
+public class ServiceAssertionSigner {
+
+    private final GatewayAssertionCodec codec;
+    private final GatewayAssertionProperties properties;
+    private final String service;
+
+    public ServiceAssertionSigner(GatewayAssertionCodec codec, GatewayAssertionProperties properties, String service) {
+        this.codec = codec;
+        this.properties = properties;
+        this.service = service;
+    }
+
+    public String getHeader() {
+        return properties.getHeader();
+    }
+
+    /**
+     * @param rawPath the request path as sent, still percent-encoded, without the query string
+     */
+    public String sign(String method, String rawPath) {
+        long expiresAt = System.currentTimeMillis() / 1000 + properties.getTtl().toSeconds();
+        return codec.sign(GatewayAssertion.forService(expiresAt, method, rawPath, service));
+    }
+}
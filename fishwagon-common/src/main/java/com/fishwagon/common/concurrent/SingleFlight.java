@@ -0,0 +1,78 @@
+package com.fishwagon.common.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent loads of the same key into one.
+ *
+ * The first caller for a key runs the loader on its own thread; callers that
+ * arrive while it is running wait for that result (or exception) instead of
+ * starting their own load. Nothing is kept once the load finishes, so this
+ * only flattens bursts and is not a cache. No lock is held while loading,
+ * which keeps waiting virtual threads unpinned. Calls are counted in
+ * singleflight.calls, tagged with the flight name and whether the caller
+ * loaded or shared.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loaded;
+    private final Counter shared;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loaded = counter(name, "loaded", meterRegistry);
+        this.shared = counter(name, "shared", meterRegistry);
+    }
+
+    /**
+     * @return the loader's result for the key, computed by this call or by the concurrent call it joined
+     */
+    public V execute(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+        loaded.increment();
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Rethrow what the loading caller saw, so every caller handles the same exception type
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("singleflight.calls")
+                .description("Lookups that ran the loader versus joined a concurrent identical lookup")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.fishwagon.common.hashing;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The bounded BCrypt pool and hashing service for the servlet services that
+ * store or check passwords (AuthenticationService, UserManagementService).
+ * One implementation, one password-hashing.* property set, so both services
+ * hash and upgrade passwords the same way. The gateway, a reactive
+ * application, never hashes and gets none of it.
+ */
+@AutoConfiguration
+@ConditionalOnClass(PasswordEncoder.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordHashingAutoConfiguration {
+
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor(PasswordHashingProperties properties,
+            MeterRegistry meterRegistry) {
+        return new PasswordHashingExecutor(properties, meterRegistry);
+    }
+
+    @Bean
+    public PasswordHashingService passwordHashingService(PasswordHashingProperties properties,
+            PasswordHashingExecutor passwordHashingExecutor) {
+        return new PasswordHashingService(properties, passwordHashingExecutor);
+    }
+}
@@ -0,0 +1,150 @@
+package com.fishwagon.common.hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fixed-size pool with a bounded queue that runs all BCrypt work off the Tomcat threads.
+ *
+ * A login storm can therefore only occupy password-hashing.threads cores; further
+ * requests queue up to password-hashing.queue-capacity and are then rejected
+ * immediately with {@link PasswordHashingRejectedException}. Queue depth and pool
+ * usage are published as executor.* metrics (name=password-hashing) and hash
+ * latency as the password.hashing timer.
+ *
+ * The pool keeps platform threads in virtual-thread mode: BCrypt is CPU-bound,
+ * and on virtual threads a login storm would occupy every carrier thread.
+ */
+public class PasswordHashingExecutor {
+
+    private static final String NAME = "password-hashing";
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory(NAME + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME);
+    }
+
+    /**
+     * Runs the hashing task on the pool and waits for its result.
+     *
+     * @param operation metric tag, e.g. "encode" or "matches"
+     * @param task      the BCrypt work
+     * @throws PasswordHashingRejectedException if the pool is saturated or the wait times out
+     */
+    public <T> T execute(String operation, Callable<T> task) {
+        Timer timer = timer(operation);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingRejectedException("Password hashing queue is full", properties.getRetryAfter(), e);
+        }
+
+        try {
+            return future.get(properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingRejectedException("Password hashing timed out in queue", properties.getRetryAfter(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", properties.getRetryAfter(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Runs a batch of hashing tasks in parallel and returns their results in order.
+     *
+     * At most password-hashing.threads tasks of the batch are in the pool at once,
+     * so queue room stays free for interactive logins and registrations. When the
+     * queue is full anyway, the batch waits retry-after and tries again instead of
+     * failing: bulk callers trade latency for completion.
+     */
+    public <T> List<T> executeAll(String operation, List<? extends Callable<T>> tasks) {
+        Timer timer = timer(operation);
+        Semaphore inFlight = new Semaphore(properties.getThreads());
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                inFlight.acquire();
+                futures.add(submitWhenAccepted(() -> {
+                    try {
+                        return timer.recordCallable(task);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", properties.getRetryAfter(), e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> Future<T> submitWhenAccepted(Callable<T> task) throws InterruptedException {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                Thread.sleep(properties.getRetryAfter().toMillis());
+            }
+        }
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("password.hashing")
+                .description("Time spent hashing or verifying a password on the hashing pool")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.fishwagon.common.hashing;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * BCrypt cost selection and sizing of the dedicated executor that runs
+ * hashing and verification.
+ */
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    // ✅ How long one hash should take on this host; the BCrypt cost is calibrated to it at startup
+    private Duration targetHashTime = Duration.ofMillis(250);
+
+    // Accepted cost band; the same in every service. Calibration stays inside it and only
+    // stored hashes outside it are rehashed, so hosts with different speeds never undo each other
+    private int minCost = 10;
+    private int maxCost = 14;
+
+    // Fixed BCrypt cost inside the band; when set, calibration is skipped
+    private Integer cost;
+
+    // ✅ Leave one core for request handling, health checks and token refreshes
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    // Hash requests allowed to wait for a free thread before new ones are rejected
+    private int queueCapacity = 64;
+
+    // Longest a caller waits for its hash before giving up with 503
+    private Duration maxWait = Duration.ofSeconds(3);
+
+    // Value of the Retry-After header sent when the executor is saturated
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public Duration getTargetHashTime() {
+        return targetHashTime;
+    }
+
+    public void setTargetHashTime(Duration targetHashTime) {
+        this.targetHashTime = targetHashTime;
+    }
+
+    public int getMinCost() {
+        return minCost;
+    }
+
+    public void setMinCost(int minCost) {
+        this.minCost = minCost;
+    }
+
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    public void setMaxCost(int maxCost) {
+        this.maxCost = maxCost;
+    }
+
+    public Integer getCost() {
+        return cost;
+    }
+
+    public void setCost(Integer cost) {
+        this.cost = cost;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
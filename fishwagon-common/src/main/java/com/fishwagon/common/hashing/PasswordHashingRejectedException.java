@@ -0,0 +1,23 @@
+package com.fishwagon.common.hashing;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the password-hashing executor is saturated and the work was not accepted
+ * (or not finished within the configured wait). Controllers map it to 503 with Retry-After.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordHashingRejectedException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,171 @@
+package com.fishwagon.common.hashing;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Central place for password hashing.
+ *
+ * Picks the BCrypt cost once at startup, either from password-hashing.cost or by
+ * timing hashes on this host until one reaches password-hashing.target-hash-time,
+ * and owns the single encoder (one SecureRandom) used for every encode/matches.
+ * The choice is always inside [min-cost, max-cost], a band shared by every
+ * service. {@link #needsRehash(String)} reports stored hashes outside that band,
+ * weaker or stronger, so they can be replaced after a successful login; a hash a
+ * faster or slower host made inside the band is left alone, so replicas on
+ * different hardware never rewrite each other's hashes back and forth.
+ */
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    // BCrypt's own limits on the log rounds
+    private static final int LOWEST_COST = 4;
+    private static final int HIGHEST_COST = 31;
+
+    private final PasswordHashingExecutor executor;
+    private final int cost;
+    private final PasswordEncoder bcrypt;
+    private final PasswordEncoder passwordEncoder;
+
+    public PasswordHashingService(PasswordHashingProperties properties, PasswordHashingExecutor executor) {
+        this.executor = executor;
+        int minCost = properties.getMinCost();
+        int maxCost = properties.getMaxCost();
+        if (minCost < LOWEST_COST || maxCost > HIGHEST_COST || minCost > maxCost) {
+            throw new IllegalStateException("password-hashing.min-cost/max-cost must satisfy " + LOWEST_COST
+                    + " <= min-cost <= max-cost <= " + HIGHEST_COST + ", got " + minCost + ".." + maxCost);
+        }
+        Integer configured = properties.getCost();
+        if (configured != null && (configured < minCost || configured > maxCost)) {
+            throw new IllegalStateException("password-hashing.cost " + configured
+                    + " is outside password-hashing.min-cost/max-cost " + minCost + ".." + maxCost);
+        }
+
+        if (configured != null) {
+            this.cost = configured;
+            logger.info("Using BCrypt cost {} (configured; one hash took {} ms on this host)", cost,
+                    timeHash(cost) / 1_000_000);
+        } else {
+            warmUp();
+            this.cost = calibrate(properties.getTargetHashTime().toNanos(), minCost, maxCost,
+                    PasswordHashingService::timeHash);
+            logger.info("Using BCrypt cost {} (calibrated for {}, band {}..{})", cost,
+                    properties.getTargetHashTime(), minCost, maxCost);
+        }
+        this.bcrypt = new BandEncoder(cost, minCost, maxCost);
+        this.passwordEncoder = new BoundedPasswordEncoder(bcrypt, executor);
+    }
+
+    /**
+     * The encoder to register as the application's PasswordEncoder bean.
+     */
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * Hashes many passwords in parallel on the hashing pool (bulk imports).
+     *
+     * @return the hashes, in the same order as the input
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Callable<String>> tasks = rawPasswords.stream()
+                .<Callable<String>>map(raw -> () -> bcrypt.encode(raw))
+                .toList();
+        return executor.executeAll("encode", tasks);
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordEncoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * @return true if the stored BCrypt hash was made with a cost outside [min-cost, max-cost]
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Highest cost whose hash still fits in the target time, within [minCost, maxCost];
+     * minCost when even that one is too slow. Each step doubles the work, so the search
+     * stops after at most a few target-times.
+     */
+    static int calibrate(long targetNanos, int minCost, int maxCost, IntToLongFunction hashNanos) {
+        int chosen = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long elapsed = hashNanos.applyAsLong(candidate);
+            logger.debug("BCrypt cost {} took {} ms", candidate, elapsed / 1_000_000);
+            if (elapsed > targetNanos) {
+                break;
+            }
+            chosen = candidate;
+        }
+        return chosen;
+    }
+
+    // Lets the JIT compile BCrypt on the cheapest cost so the first measurement is not inflated
+    private static void warmUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(LOWEST_COST);
+        for (int i = 0; i < 20; i++) {
+            encoder.encode("calibration");
+        }
+    }
+
+    private static long timeHash(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * BCrypt encoder that hashes at the chosen cost and asks for an upgrade only when
+     * the stored cost is outside the band. BCryptPasswordEncoder's own rule upgrades
+     * anything below its strength and throws on hashes it cannot parse; those are
+     * simply not upgraded here.
+     */
+    private static final class BandEncoder extends BCryptPasswordEncoder {
+
+        private final int minCost;
+        private final int maxCost;
+
+        BandEncoder(int cost, int minCost, int maxCost) {
+            super(cost);
+            this.minCost = minCost;
+            this.maxCost = maxCost;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null) {
+                return false;
+            }
+            Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+            if (!matcher.find()) {
+                return false;
+            }
+            int storedCost = Integer.parseInt(matcher.group(1));
+            return storedCost < minCost || storedCost > maxCost;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fishwagon.common.jwt;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Typed view of a JWT whose signature has already been checked.
+ * Built once per request by each service's JwtUtil.verify so that
+ * filters never have to parse the same token again.
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final List<String> roles;
+    private final Instant expiresAt;
+    private final String tokenId;
+    private final Instant issuedAt;
+
+    public VerifiedToken(String subject, List<String> roles, Instant expiresAt, String tokenId, Instant issuedAt) {
+        this.subject = subject;
+        this.roles = roles == null ? List.of() : List.copyOf(roles);
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+    }
+
+    public static VerifiedToken fromClaims(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        Date expiration = claims.getExpiration();
+        Date issuedAt = claims.getIssuedAt();
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles == null ? null : roles.stream().map(String::valueOf).toList(),
+                expiration == null ? null : expiration.toInstant(),
+                claims.getId(),
+                issuedAt == null ? null : issuedAt.toInstant());
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    // jti claim, the handle used to revoke this single token
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+}
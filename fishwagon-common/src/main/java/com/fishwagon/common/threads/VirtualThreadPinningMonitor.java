@@ -0,0 +1,76 @@
+package com.fishwagon.common.threads;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier; registered by
+ * {@link VirtualThreadsAutoConfiguration} in virtual-thread mode only.
+ *
+ * A virtual thread that blocks inside synchronized (a JDBC driver or connection
+ * pool that still locks with monitors) or a native frame holds its carrier
+ * thread for the whole wait, so a few such sites can stall every request.
+ * Pinnings longer than virtual-threads.pinned-threshold are recorded in the
+ * jvm.threads.virtual.pinned timer, and the stack of each distinct pinning
+ * site is logged once.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 16;
+    private static final int MAX_LOGGED_SITES = 100;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Timer pinned;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        String site = describe(event.getStackTrace());
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            logger.warn("Virtual thread pinned for {} ms at:{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder site = new StringBuilder();
+        for (RecordedFrame frame : frames.subList(0, Math.min(STACK_DEPTH, frames.size()))) {
+            site.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return site.toString();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.fishwagon.common.assertion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class GatewayAssertionCodecTest {
+
+    static final String SECRET = key("test-only-gateway-assertion-key!");
+    private static final long NOW = 1_700_000_000L;
+
+    private final GatewayAssertionCodec codec = new GatewayAssertionCodec(SECRET, Duration.ofSeconds(5));
+
+    @Test
+    void roundTripsARequestAssertion() {
+        GatewayAssertion signed = GatewayAssertion.forRequest(NOW + 30, "GET", "/users/42", "/users/*",
+                "AUTHENTICATED", "alice&bob=1", List.of("ROLE_USER", "ROLE_MANAGER"));
+
+        GatewayAssertion verified = codec.verify(codec.sign(signed), NOW);
+
+        assertThat(verified).isNotNull();
+        assertThat(verified.getMethod()).isEqualTo("GET");
+        assertThat(verified.getPath()).isEqualTo("/users/42");
+        assertThat(verified.getRule()).isEqualTo("/users/*");
+        assertThat(verified.getAccess()).isEqualTo("AUTHENTICATED");
+        assertThat(verified.getSubject()).isEqualTo("alice&bob=1");
+        assertThat(verified.getRoles()).containsExactly("ROLE_USER", "ROLE_MANAGER");
+        assertThat(verified.isService()).isFalse();
+    }
+
+    @Test
+    void roundTripsAServiceAssertion() {
+        GatewayAssertion verified = codec.verify(codec.sign(
+                GatewayAssertion.forService(NOW + 30, "POST", "/auth/internal/revocations", "gateway-service")), NOW);
+
+        assertThat(verified.isService()).isTrue();
+        assertThat(verified.getService()).isEqualTo("gateway-service");
+        assertThat(verified.getSubject()).isNull();
+    }
+
+    @Test
+    void rejectsExpiredAssertionsAfterTheClockSkew() {
+        String value = codec.sign(GatewayAssertion.forService(NOW, "GET", "/x", "svc"));
+
+        assertThat(codec.verify(value, NOW + 5)).isNotNull();
+        assertThat(codec.verify(value, NOW + 6)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedOrForeignValues() {
+        String value = codec.sign(GatewayAssertion.forRequest(NOW + 30, "GET", "/users/42", "/users/*",
+                "AUTHENTICATED", "alice", List.of("ROLE_USER")));
+        String[] parts = value.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "exp=9999999999&m=GET&p=%2Fusers%2F42&rule=x&access=PUBLIC&sub=admin&roles=ROLE_ADMIN"
+                        .getBytes(StandardCharsets.UTF_8));
+        GatewayAssertionCodec otherKey = new GatewayAssertionCodec(key("another-gateway-assertion-key-32"),
+                Duration.ofSeconds(5));
+
+        assertThat(codec.verify(parts[0] + "." + forgedPayload + "." + parts[2], NOW)).isNull();
+        assertThat(codec.verify("v1." + parts[1] + "." + parts[2], NOW)).isNull();
+        assertThat(codec.verify(value + "x", NOW)).isNull();
+        assertThat(codec.verify("not-an-assertion", NOW)).isNull();
+        assertThat(otherKey.verify(value, NOW)).isNull();
+    }
+
+    @Test
+    void refusesMissingOrShortKeys() {
+        assertThatThrownBy(() -> new GatewayAssertionCodec(null, Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GATEWAY_ASSERTION_SECRET");
+        assertThatThrownBy(() -> new GatewayAssertionCodec(" ", Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new GatewayAssertionCodec(key("too-short"), Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("32 bytes");
+    }
+
+    static String key(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
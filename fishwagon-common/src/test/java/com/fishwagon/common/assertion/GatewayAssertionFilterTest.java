@@ -0,0 +1,189 @@
+package com.fishwagon.common.assertion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class GatewayAssertionFilterTest {
+
+    private final GatewayAssertionCodec codec =
+            new GatewayAssertionCodec(GatewayAssertionCodecTest.SECRET, Duration.ofSeconds(5));
+    private final GatewayAssertionProperties properties = properties(true);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesTheAssertedUser() throws Exception {
+        MockHttpServletRequest request = request("GET", "/users/42",
+                user("GET", "/users/42", "AUTHENTICATED", "alice"));
+
+        Result result = filter(properties, request);
+
+        assertThat(result.status()).isEqualTo(200);
+        assertThat(result.authentication().getName()).isEqualTo("alice");
+        assertThat(authorities(result.authentication())).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void rejectsRequestsWithoutAssertion() throws Exception {
+        Result result = filter(properties, request("GET", "/users/42", null));
+
+        assertThat(result.status()).isEqualTo(401);
+        assertThat(result.passed()).isFalse();
+    }
+
+    @Test
+    void letsUnsignedPathsThroughAnonymously() throws Exception {
+        Result health = filter(properties, request("GET", "/actuator/health", null));
+        Result liveness = filter(properties, request("GET", "/actuator/health/liveness", null));
+
+        assertThat(health.passed()).isTrue();
+        assertThat(liveness.passed()).isTrue();
+        assertThat(health.authentication()).isNull();
+    }
+
+    @Test
+    void rejectsAnAssertionSignedForAnotherMethodOrPath() throws Exception {
+        String assertion = user("GET", "/users/42", "AUTHENTICATED", "alice");
+
+        assertThat(filter(properties, request("DELETE", "/users/42", assertion)).status()).isEqualTo(401);
+        assertThat(filter(properties, request("GET", "/users/admin/findAll", assertion)).status()).isEqualTo(401);
+    }
+
+    @Test
+    void refusesDenyDecisions() throws Exception {
+        Result result = filter(properties, request("GET", "/auth/internal/revocations",
+                user("GET", "/auth/internal/revocations", "DENY", "alice")));
+
+        assertThat(result.status()).isEqualTo(403);
+        assertThat(result.passed()).isFalse();
+    }
+
+    @Test
+    void requiresASubjectOutsidePublicRules() throws Exception {
+        Result anonymousPublic = filter(properties, request("POST", "/users/public/createUser",
+                anonymous("POST", "/users/public/createUser", "PUBLIC")));
+        Result anonymousAuthenticated = filter(properties, request("GET", "/users/42",
+                anonymous("GET", "/users/42", "AUTHENTICATED")));
+
+        assertThat(anonymousPublic.passed()).isTrue();
+        assertThat(anonymousPublic.authentication()).isNull();
+        assertThat(anonymousAuthenticated.status()).isEqualTo(401);
+    }
+
+    @Test
+    void refusesDisabledUsers() throws Exception {
+        GatewayAssertionFilter filter = new GatewayAssertionFilter(codec, properties, "alice"::equals);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/users/42", user("GET", "/users/42", "AUTHENTICATED", "alice")), response,
+                new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void serviceAssertionsGrantTheServiceRoleInBothModes() throws Exception {
+        String assertion = codec.sign(GatewayAssertion.forService(now() + 30, "GET", "/auth/internal/revocations",
+                "gateway-service"));
+
+        for (boolean enabled : new boolean[] { true, false }) {
+            Result result = filter(properties(enabled), request("GET", "/auth/internal/revocations", assertion));
+
+            assertThat(result.passed()).isTrue();
+            assertThat(result.authentication().getName()).isEqualTo("gateway-service");
+            assertThat(authorities(result.authentication())).containsExactly(GatewayAssertion.SERVICE_ROLE);
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void jwtModeLeavesOtherRequestsToTheJwtFilter() throws Exception {
+        GatewayAssertionProperties jwtMode = properties(false);
+
+        Result missing = filter(jwtMode, request("GET", "/users/42", null));
+        Result gateway = filter(jwtMode, request("GET", "/users/42", user("GET", "/users/42", "AUTHENTICATED", "alice")));
+
+        assertThat(missing.passed()).isTrue();
+        assertThat(gateway.passed()).isTrue();
+        assertThat(gateway.authentication()).isNull();
+    }
+
+    private Result filter(GatewayAssertionProperties settings, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        new GatewayAssertionFilter(codec, settings).doFilter(request, response, chain);
+        return new Result(response.getStatus(), chain.getRequest() != null,
+                SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private String user(String method, String path, String access, String subject) {
+        return codec.sign(GatewayAssertion.forRequest(now() + 30, method, path, "/users/*", access, subject,
+                List.of("ROLE_USER")));
+    }
+
+    private String anonymous(String method, String path, String access) {
+        return codec.sign(GatewayAssertion.forRequest(now() + 30, method, path, "/users/public/createUser", access, null,
+                List.of()));
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String assertion) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (assertion != null) {
+            request.addHeader("X-Gateway-Assertion", assertion);
+        }
+        return request;
+    }
+
+    private static GatewayAssertionProperties properties(boolean enabled) {
+        GatewayAssertionProperties properties = new GatewayAssertionProperties();
+        properties.setEnabled(enabled);
+        return properties;
+    }
+
+    private static List<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static final class Result {
+
+        private final int status;
+        private final boolean passed;  // Reached the rest of the chain
+        private final Authentication authentication;
+
+        private Result(int status, boolean passed, Authentication authentication) {
+            this.status = status;
+            this.passed = passed;
+            this.authentication = authentication;
+        }
+
+        int status() {
+            return status;
+        }
+
+        boolean passed() {
+            return passed;
+        }
+
+        Authentication authentication() {
+            return authentication;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.fishwagon.common.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = startCallers(() -> flight.execute("alice", key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "loaded " + key;
+        }));
+        awaitJoined(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded alice");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("shared")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failurePropagatesToEveryWaiter() throws Exception {
+        IllegalStateException failure = new IllegalStateException("user service down");
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = startCallers(() -> flight.execute("alice", key -> {
+            await(release);
+            throw failure;
+        }));
+        awaitJoined(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+    }
+
+    @Test
+    void keyIsReleasedAfterAFailure() {
+        assertThatThrownBy(() -> flight.execute("alice", key -> {
+            throw new IllegalStateException("user service down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // A later call loads again instead of joining the failed one
+        assertThat(flight.execute("alice", key -> "loaded " + key)).isEqualTo("loaded alice");
+        assertThat(count("loaded")).isEqualTo(2);
+        assertThat(count("shared")).isZero();
+    }
+
+    @Test
+    void sequentialCallsDoNotShare() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("alice", key -> "v" + loads.incrementAndGet());
+        String second = flight.execute("alice", key -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<Future<String>> startCallers(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    // Waits until every caller but the loading one has joined the running load
+    private void awaitJoined(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("shared") < waiters) {
+            assertThat(System.nanoTime()).as("callers joined in time").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("singleflight.calls").tag("name", "test").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.fishwagon.common.hashing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PasswordHashingServiceTest {
+
+    private static final long MS = 1_000_000;
+
+    private final PasswordHashingProperties properties = properties(5, 4, 6);
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(properties, new SimpleMeterRegistry());
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rehashesOnlyHashesOutsideTheBand() {
+        PasswordHashingService service = new PasswordHashingService(properties(5, 5, 6), executor);
+
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(5).encode("secret"))).isFalse();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(7).encode("secret"))).isTrue();
+        assertThat(service.needsRehash(service.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void hashesAtTheConfiguredCost() {
+        PasswordHashingService service = new PasswordHashingService(properties, executor);
+
+        assertThat(service.getCost()).isEqualTo(5);
+        assertThat(service.encode("secret")).startsWith("$2a$05$");
+    }
+
+    @Test
+    void calibratesWithinTheBandWhenNoCostIsSet() {
+        PasswordHashingProperties calibrated = properties(null, 4, 5);
+        calibrated.setTargetHashTime(Duration.ofMinutes(1));
+
+        PasswordHashingService service = new PasswordHashingService(calibrated, executor);
+
+        assertThat(service.getCost()).isEqualTo(5);  // Both fit in a minute; the ceiling wins
+    }
+
+    @Test
+    void calibrationPicksTheHighestCostThatFitsTheTarget() {
+        // Each step doubles: cost 10 = 60 ms, 11 = 120 ms, 12 = 240 ms, 13 = 480 ms
+        assertThat(PasswordHashingService.calibrate(250 * MS, 10, 14, doubling())).isEqualTo(12);
+        assertThat(PasswordHashingService.calibrate(120 * MS, 10, 14, doubling())).isEqualTo(11);
+    }
+
+    @Test
+    void calibrationStaysInsideTheBand() {
+        assertThat(PasswordHashingService.calibrate(10 * MS, 10, 14, doubling())).isEqualTo(10);  // Slow host
+        assertThat(PasswordHashingService.calibrate(60_000 * MS, 10, 14, doubling())).isEqualTo(14);  // Fast host
+    }
+
+    @Test
+    void calibrationStopsAtTheFirstCostOverTheTarget() {
+        List<Integer> timed = new ArrayList<>();
+
+        PasswordHashingService.calibrate(250 * MS, 10, 16, cost -> {
+            timed.add(cost);
+            return doubling().applyAsLong(cost);
+        });
+
+        assertThat(timed).containsExactly(10, 11, 12, 13);
+    }
+
+    @Test
+    void ignoresValuesThatAreNotBcrypt() {
+        PasswordHashingService service = new PasswordHashingService(properties, executor);
+
+        assertThat(service.needsRehash(null)).isFalse();
+        assertThat(service.needsRehash("{noop}secret")).isFalse();
+    }
+
+    @Test
+    void refusesAnInvalidBandOrACostOutsideIt() {
+        assertThatThrownBy(() -> new PasswordHashingService(properties(null, 12, 10), executor))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("min-cost");
+        assertThatThrownBy(() -> new PasswordHashingService(properties(null, 3, 10), executor))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("min-cost");
+        assertThatThrownBy(() -> new PasswordHashingService(properties(9, 10, 14), executor))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("password-hashing.cost 9");
+    }
+
+    private static IntToLongFunction doubling() {
+        return cost -> (60 * MS) << (cost - 10);
+    }
+
+    private static PasswordHashingProperties properties(Integer cost, int minCost, int maxCost) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setCost(cost);
+        properties.setMinCost(minCost);
+        properties.setMaxCost(maxCost);
+        properties.setThreads(1);
+        return properties;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fishwagon.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Results of one endpoint: a latency histogram of the successful (2xx)
+ * responses and a counter per failure outcome. Recording is lock-free, so
+ * thousands of virtual users can share one instance.
+ *
+ * Failures are kept out of the histogram on purpose: a 429 from the rate
+ * limiter takes microseconds and would make an overloaded endpoint look fast.
+ */
+final class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);  // microseconds
+    private final LongAdder successes = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    void record(GatewayClient.Response response, long latencyNanos) {
+        if (response.isSuccess()) {
+            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            successes.increment();
+        } else {
+            failures.computeIfAbsent(response.outcome(), outcome -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return the latencies recorded so far; call once, at the end of the measurement
+     */
+    Histogram latencies() {
+        return latencies.getIntervalHistogram();
+    }
+
+    long successes() {
+        return successes.sum();
+    }
+
+    // Sorted by outcome: "429", "503", "HttpTimeoutException", ...
+    Map<String, Long> failures() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,231 @@
+package com.fishwagon.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The FishWagon API as seen by a browser or app: every request goes through
+ * the gateway, so routing, rate limits, token verification and the gateway
+ * assertion are all on the measured path.
+ *
+ * Requests are spread over several JDK HttpClients, each bound to its own
+ * loopback source address (127.0.0.1, 127.0.0.2, ...): the gateway limits
+ * logins per client IP, and a single address would make the whole load test
+ * look like one very busy client.
+ */
+final class GatewayClient {
+
+    static final long ROLE_USER = 3;  // ✅ Id seeded by UserManagementService's db/embedded-roles.sql
+
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final URI gateway;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<HttpClient> clients;
+
+    GatewayClient(URI gateway, int clientAddresses, Duration timeout) {
+        this.gateway = gateway;
+        this.timeout = timeout;
+        this.clients = new ArrayList<>();
+        boolean loopback = isLoopback(gateway.getHost());
+        for (int i = 0; i < Math.max(1, clientAddresses); i++) {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout);
+            if (loopback && clientAddresses > 1) {
+                builder.localAddress(loopbackAddress(i));
+            }
+            clients.add(builder.build());
+        }
+    }
+
+    /**
+     * @param client index of the calling virtual user; picks its source address
+     */
+    Response login(int client, String username, String password) {
+        return send(client, post("/auth/public/login", JSON, json(Map.of("username", username, "password", password))));
+    }
+
+    Response refresh(int client, String refreshToken) {
+        return send(client, post("/auth/public/refresh", JSON, json(Map.of("refreshToken", refreshToken))));
+    }
+
+    // Self-registration always creates a USER; the service ignores any roleId
+    Response register(int client, String username, String password) {
+        return send(client, post("/users/public/createUser", JSON, json(registration(username, password))));
+    }
+
+    Response getUser(int client, String token, long id) {
+        return send(client, get("/users/" + id, token));
+    }
+
+    Response listUsers(int client, String token, long afterId, int limit) {
+        return send(client, get("/users/admin/findAll?afterId=" + afterId + "&limit=" + limit, token));
+    }
+
+    /**
+     * Imports all users in one NDJSON request (passwords hashed in parallel by UserManagementService).
+     */
+    Response bulkImport(String token, List<String> usernames, String password, long roleId) {
+        StringBuilder body = new StringBuilder();
+        for (String username : usernames) {
+            Map<String, Object> user = registration(username, password);
+            user.put("roleId", roleId);
+            body.append(json(user)).append('\n');
+        }
+        HttpRequest request = HttpRequest.newBuilder(gateway.resolve("/users/admin/bulkImport"))
+                .timeout(Duration.ofMinutes(10))
+                .header("Content-Type", NDJSON)
+                .header("Accept", NDJSON)
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return send(0, request);
+    }
+
+    JsonNode parse(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unexpected response body: " + body, e);
+        }
+    }
+
+    private HttpRequest post(String path, String contentType, String body) {
+        return HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", contentType)
+                .header("Accept", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // Accept is explicit: /users/admin/findAll also has an NDJSON export variant
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(timeout)
+                .header("Accept", JSON)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private Response send(int client, HttpRequest request) {
+        try {
+            HttpResponse<String> response = clients.get(Math.floorMod(client, clients.size()))
+                    .send(request, HttpResponse.BodyHandlers.ofString());
+            Duration retryAfter = response.headers().firstValue("Retry-After")
+                    .filter(value -> value.trim().matches("\\d+"))  // Seconds; the HTTP-date form is not used here
+                    .map(seconds -> Duration.ofSeconds(Long.parseLong(seconds.trim())))
+                    .orElse(null);
+            return new Response(response.statusCode(), response.body(), retryAfter, null);
+        } catch (IOException e) {
+            return new Response(0, null, null, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, null, null, e);
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Same shape as UserManagementService's UserRegistrationDTO
+    private static Map<String, Object> registration(String username, String password) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("username", username);
+        user.put("password", password);
+        user.put("mobile", "5550100");
+        user.put("profilePic", "https://example.invalid/" + username + ".png");
+        user.put("street", "1 Harbour Road");
+        user.put("city", "Kochi");
+        user.put("state", "Kerala");
+        user.put("country", "India");
+        user.put("postalCode", "682001");
+        return user;
+    }
+
+    private static boolean isLoopback(String host) {
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    // 127.0.0.1, 127.0.0.2, ...; Linux routes all of 127.0.0.0/8 to the loopback interface
+    private static InetAddress loopbackAddress(int index) {
+        int host = index + 1;
+        try {
+            return InetAddress.getByAddress(new byte[] { 127, 0, (byte) (host >> 8), (byte) host });
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Status and body of a response; status 0 and the error if no response arrived.
+     */
+    static final class Response {
+
+        private final int status;
+        private final String body;
+        private final Duration retryAfter;
+        private final Exception error;
+
+        private Response(int status, String body, Duration retryAfter, Exception error) {
+            this.status = status;
+            this.body = body;
+            this.retryAfter = retryAfter;
+            this.error = error;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        String getBody() {
+            return body;
+        }
+
+        // Sent with 429 (rate limit) and 503 (hashing queue full)
+        Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        Exception getError() {
+            return error;
+        }
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+
+        // ✅ Key of the error counters: the status code, or the exception for requests without a response
+        String outcome() {
+            return error == null ? String.valueOf(status) : error.getClass().getSimpleName();
+        }
+    }
+}
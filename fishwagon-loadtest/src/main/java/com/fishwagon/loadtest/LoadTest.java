@@ -0,0 +1,56 @@
+package com.fishwagon.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of loadtest.jar: starts the stack (unless services.start=false),
+ * creates the test accounts, runs the workload and reports per endpoint.
+ * With compare set, does all of that once per entry and reports the runs side by side.
+ *
+ *   java -jar fishwagon-loadtest/target/loadtest.jar concurrency=200 duration=PT5M
+ *   java -jar fishwagon-loadtest/target/loadtest.jar compare=default,virtual-threads
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        List<String> compared = settings.getCompare();
+        if (compared.isEmpty()) {
+            run(settings);
+            return;
+        }
+        if (!settings.isStartServices()) {
+            throw new IllegalArgumentException("compare needs services.start=true: every entry runs on its own stack");
+        }
+        List<LoadTestReport> reports = new ArrayList<>();
+        for (String entry : compared) {
+            System.out.printf("%n=== %s ===%n", entry);
+            reports.add(run(settings.forComparison(entry)));
+        }
+        LoadTestReport.printComparison(System.out, compared, reports);
+        LoadTestReport.writeComparison(settings.getResultFile(), compared, reports);
+        System.out.println("Comparison written to " + settings.getResultFile());
+    }
+
+    private static LoadTestReport run(LoadTestSettings settings) throws Exception {
+        LocalStack stack = settings.isStartServices() ? LocalStack.start(settings) : null;
+        try {
+            GatewayClient client = new GatewayClient(settings.getGatewayUrl(), settings.getClientAddresses(),
+                    settings.getRequestTimeout());
+            TestData data = TestData.create(client, settings);
+            LoadTestReport report = new Workload(client, data, settings).run();
+            report.print(System.out);
+            report.write(settings.getResultFile());
+            System.out.println("Results written to " + settings.getResultFile());
+            return report;
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+    }
+}
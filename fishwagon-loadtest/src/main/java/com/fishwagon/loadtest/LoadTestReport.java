@@ -0,0 +1,155 @@
+package com.fishwagon.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Throughput and latency percentiles per endpoint, printed as a table and
+ * written as JSON (settings included) so results of two releases can be compared.
+ * The runs of one compare setting are also printed and written side by side.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final LoadTestSettings settings;
+    private final double seconds;
+    private final Map<Operation, Row> rows = new LinkedHashMap<>();
+
+    LoadTestReport(LoadTestSettings settings, Map<Operation, EndpointStats> stats, long measuredNanos) {
+        this.settings = settings;
+        this.seconds = measuredNanos / 1e9;
+        Map<Operation, Integer> mix = settings.getMix();
+        stats.forEach((operation, endpoint) -> {
+            if (mix.get(operation) > 0) {
+                rows.put(operation, new Row(endpoint.latencies(), endpoint.successes(), endpoint.failures()));
+            }
+        });
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nMeasured %.1f s, %s, concurrency %d%n", seconds,
+                settings.getRate() > 0 ? "open loop at " + settings.getRate() + " req/s" : "closed loop",
+                settings.getConcurrency());
+        out.printf("%-32s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "OK", "Failed", "OK/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        rows.forEach((operation, row) -> {
+            out.printf("%-32s %9d %8d %9.1f", operation.getEndpoint(), row.successes, row.failed(),
+                    row.successes / seconds);
+            for (double percentile : PERCENTILES) {
+                out.printf(" %9.2f", row.percentileMillis(percentile));
+            }
+            out.printf(" %9.2f%n", row.maxMillis());
+            if (!row.failures.isEmpty()) {
+                out.printf("%-32s failures: %s%n", "", row.failures);
+            }
+        });
+        out.println("Latencies are of 2xx responses; failures are counted by status code or exception.");
+    }
+
+    void write(Path file) throws IOException {
+        writer().writeValue(file.toFile(), toJson());
+    }
+
+    /**
+     * One line per endpoint and run, the runs of an endpoint next to each other.
+     */
+    static void printComparison(PrintStream out, List<String> labels, List<LoadTestReport> reports) {
+        out.printf("%nComparison (%s)%n", String.join(" vs ", labels));
+        out.printf("%-32s %-20s %9s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Run", "OK/s", "Failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms");
+        for (Operation operation : reports.get(0).rows.keySet()) {
+            for (int i = 0; i < reports.size(); i++) {
+                LoadTestReport report = reports.get(i);
+                Row row = report.rows.get(operation);
+                out.printf("%-32s %-20s %9.1f %8d", i == 0 ? operation.getEndpoint() : "", labels.get(i),
+                        row.successes / report.seconds, row.failed());
+                for (double percentile : PERCENTILES) {
+                    out.printf(" %9.2f", row.percentileMillis(percentile));
+                }
+                out.println();
+            }
+        }
+    }
+
+    static void writeComparison(Path file, List<String> labels, List<LoadTestReport> reports) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (int i = 0; i < reports.size(); i++) {
+            json.put(labels.get(i), reports.get(i).toJson());
+        }
+        writer().writeValue(file.toFile(), Map.of("compare", json));
+    }
+
+    private Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("finishedAt", Instant.now().toString());
+        json.put("measuredSeconds", seconds);
+        json.put("settings", settings.asMap());
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        rows.forEach((operation, row) -> {
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("operation", operation.getKey());
+            endpoint.put("endpoint", operation.getEndpoint());
+            endpoint.put("ok", row.successes);
+            endpoint.put("failed", row.failed());
+            endpoint.put("okPerSecond", row.successes / seconds);
+            Map<String, Double> latency = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                latency.put("p" + formatPercentile(percentile), row.percentileMillis(percentile));
+            }
+            latency.put("max", row.maxMillis());
+            latency.put("mean", row.successes == 0 ? 0 : row.latencies.getMean() / 1000.0);
+            endpoint.put("latencyMs", latency);
+            endpoint.put("failures", row.failures);
+            endpoints.add(endpoint);
+        });
+        json.put("endpoints", endpoints);
+        return json;
+    }
+
+    private static ObjectWriter writer() {
+        return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writer();
+    }
+
+    // 50 -> "50", 99.9 -> "99.9"
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static final class Row {
+
+        private final Histogram latencies;  // microseconds
+        private final long successes;
+        private final Map<String, Long> failures;
+
+        private Row(Histogram latencies, long successes, Map<String, Long> failures) {
+            this.latencies = latencies;
+            this.successes = successes;
+            this.failures = failures;
+        }
+
+        private long failed() {
+            return failures.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        private double percentileMillis(double percentile) {
+            return successes == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        private double maxMillis() {
+            return successes == 0 ? 0 : latencies.getMaxValue() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.fishwagon.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings of a run: loadtest.properties overridden by key=value arguments.
+ * Unknown keys are rejected so a typo cannot silently run the defaults.
+ */
+final class LoadTestSettings {
+
+    private static final String DEFAULTS = "loadtest.properties";
+    private static final String DEFAULT_ENTRY = "default";  // compare entry without extra profiles
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestSettings parse(String[] args) {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestSettings.class.getClassLoader().getResourceAsStream(DEFAULTS)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULTS + " not found on the classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, separator).trim();
+            if (!properties.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown setting: " + key + " (see " + DEFAULTS + ")");
+            }
+            properties.setProperty(key, arg.substring(separator + 1).trim());
+        }
+        return new LoadTestSettings(properties);
+    }
+
+    boolean isStartServices() {
+        return Boolean.parseBoolean(get("services.start"));
+    }
+
+    /**
+     * @return the configured directory, or the repository containing fishwagon-loadtest/target
+     */
+    Path getServicesDir() {
+        String dir = get("services.dir");
+        if (!dir.isEmpty()) {
+            return Path.of(dir).toAbsolutePath();
+        }
+        try {
+            // target/loadtest.jar or target/classes -> the repository root
+            Path location = Path.of(LoadTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location.toAbsolutePath().getParent().getParent().getParent();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Cannot locate the repository, set services.dir", e);
+        }
+    }
+
+    Path getRunDir() {
+        return Path.of(get("services.run-dir")).toAbsolutePath();
+    }
+
+    List<String> getJvmArgs() {
+        return split(get("services.jvm-args"));
+    }
+
+    // Comma-separated, activated after "embedded"
+    String getServiceProfiles() {
+        return get("services.profiles").replaceAll("\\s", "");
+    }
+
+    /**
+     * @return the services.profiles of every run to compare; empty for a single run
+     */
+    List<String> getCompare() {
+        return get("compare").isEmpty() ? List.of() : Arrays.asList(get("compare").replaceAll("\\s", "").split(","));
+    }
+
+    /**
+     * Settings of one run of a comparison: the entry's profiles, and its own run
+     * directory and result file so the runs do not overwrite each other's logs.
+     */
+    LoadTestSettings forComparison(String entry) {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        copy.setProperty("compare", "");
+        copy.setProperty("services.profiles", entry.equals(DEFAULT_ENTRY) ? "" : entry.replace('+', ','));
+        copy.setProperty("services.run-dir", getRunDir().resolve(entry).toString());
+        String resultFile = getResultFile().toString();
+        int extension = resultFile.endsWith(".json") ? resultFile.length() - ".json".length() : resultFile.length();
+        copy.setProperty("result-file", resultFile.substring(0, extension) + "-" + entry + ".json");
+        return new LoadTestSettings(copy);
+    }
+
+    List<String> getServiceArgs() {
+        return split(get("services.args"));
+    }
+
+    Duration getStartupTimeout() {
+        return Duration.parse(get("services.startup-timeout"));
+    }
+
+    URI getGatewayUrl() {
+        return URI.create(get("gateway.url"));
+    }
+
+    int getUsers() {
+        return Integer.parseInt(get("users"));
+    }
+
+    String getPassword() {
+        return get("password");
+    }
+
+    /**
+     * @return the weight of every operation, zero for those left out of mix
+     */
+    Map<Operation, Integer> getMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, 0);
+        }
+        for (String entry : split(get("mix").replace(',', ' '))) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix, got: " + entry);
+            }
+            mix.put(Operation.fromKey(parts[0]), Integer.parseInt(parts[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix has no operation with a positive weight");
+        }
+        return mix;
+    }
+
+    int getConcurrency() {
+        return Integer.parseInt(get("concurrency"));
+    }
+
+    double getRate() {
+        return Double.parseDouble(get("rate"));
+    }
+
+    Duration getWarmup() {
+        return Duration.parse(get("warmup"));
+    }
+
+    Duration getDuration() {
+        return Duration.parse(get("duration"));
+    }
+
+    int getClientAddresses() {
+        return Integer.parseInt(get("client-addresses"));
+    }
+
+    int getAdminListLimit() {
+        return Integer.parseInt(get("admin-list.limit"));
+    }
+
+    Duration getRequestTimeout() {
+        return Duration.parse(get("request-timeout"));
+    }
+
+    Path getResultFile() {
+        return Path.of(get("result-file")).toAbsolutePath();
+    }
+
+    // ✅ Echoed into the result file, so two results can be told apart
+    Map<String, String> asMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        properties.stringPropertyNames().stream().sorted()
+                .filter(key -> !key.equals("password"))
+                .forEach(key -> map.put(key, properties.getProperty(key)));
+        return map;
+    }
+
+    private String get(String key) {
+        return properties.getProperty(key, "").trim();
+    }
+
+    private static List<String> split(String value) {
+        return value.isBlank() ? List.of() : Arrays.asList(value.trim().split("\\s+"));
+    }
+}
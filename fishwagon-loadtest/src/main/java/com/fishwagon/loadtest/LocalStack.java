@@ -0,0 +1,276 @@
+package com.fishwagon.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The four services as child processes of the harness, each started from its
+ * *-exec.jar with the "embedded" profile: H2 instead of MySQL and a local
+ * Eureka polled every few seconds, plus the profiles in services.profiles.
+ * Ports are the production ones (8761, 8081, 8082, 8080). Each service gets its own working directory and log file under
+ * services.run-dir; the processes are stopped when the run ends, also on Ctrl+C.
+ * The gateway-assertion key is generated per run and handed to every service
+ * in GATEWAY_ASSERTION_SECRET, since the services ship without one. Neither do
+ * they ship H2: the jars run through Spring Boot's PropertiesLauncher with the
+ * H2 jar that fishwagon-loadtest's build copies to target/embedded-lib on
+ * loader.path.
+ */
+final class LocalStack implements AutoCloseable {
+
+    private static final String PROFILE = "embedded";
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+    private static final String EMBEDDED_LIB = "h2-*.jar";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(20);
+    private static final int LOG_TAIL_LINES = 40;
+
+    private static final Service EUREKA = new Service("EurekaDiscoveryService", 8761);
+    private static final Service AUTH = new Service("AuthenticationService", 8081);
+    private static final Service USERS = new Service("UserManagementService", 8082);
+    private static final Service GATEWAY = new Service("GatewayService", 8080);
+
+    private final LoadTestSettings settings;
+    private final String assertionSecret = newSecret();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final List<Running> running = new ArrayList<>();
+    private final Thread shutdownHook = new Thread(this::stopAll, "loadtest-stack-shutdown");
+
+    private LocalStack(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Starts Eureka, then both backends, then the gateway, each once the
+     * services it depends on answer HTTP requests.
+     */
+    static LocalStack start(LoadTestSettings settings) {
+        LocalStack stack = new LocalStack(settings);
+        Runtime.getRuntime().addShutdownHook(stack.shutdownHook);
+        try {
+            for (Service service : List.of(EUREKA, AUTH, USERS, GATEWAY)) {
+                stack.checkPortFree(service);
+            }
+            long deadline = System.nanoTime() + settings.getStartupTimeout().toNanos();
+            stack.awaitStarted(List.of(stack.launch(EUREKA)), deadline);
+            stack.awaitStarted(List.of(stack.launch(AUTH), stack.launch(USERS)), deadline);
+            stack.awaitStarted(List.of(stack.launch(GATEWAY)), deadline);
+        } catch (RuntimeException e) {
+            stack.close();
+            throw e;
+        }
+        return stack;
+    }
+
+    @Override
+    public void close() {
+        stopAll();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down; the hook is doing the same
+        }
+    }
+
+    private void checkPortFree(Service service) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", service.port), 500);
+        } catch (IOException e) {
+            return;  // Nothing listening
+        }
+        throw new IllegalStateException("Port " + service.port + " (" + service.name
+                + ") is already in use; stop it, or run against the running stack with services.start=false");
+    }
+
+    private Running launch(Service service) {
+        Path jar = findJar(service);
+        Path workDir = settings.getRunDir().resolve(service.name);
+        Path log = settings.getRunDir().resolve(service.name + ".log");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(settings.getJvmArgs());
+        command.add("-Dloader.path=" + findEmbeddedLib());
+        command.add("-cp");
+        command.add(jar.toString());
+        command.add(LAUNCHER);
+        String profiles = settings.getServiceProfiles();
+        command.add("--spring.profiles.active=" + (profiles.isEmpty() ? PROFILE : PROFILE + "," + profiles));
+        command.addAll(settings.getServiceArgs());
+        try {
+            Files.createDirectories(workDir);
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .directory(workDir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile());
+            builder.environment().put("GATEWAY_ASSERTION_SECRET", assertionSecret);
+            Process process = builder.start();
+            System.out.printf("Started %s (pid %d), log: %s%n", service.name, process.pid(), log);
+            Running started = new Running(service, process, log);
+            synchronized (running) {
+                running.add(started);
+            }
+            return started;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start " + service.name, e);
+        }
+    }
+
+    private Path findJar(Service service) {
+        // Either a repository (<module>/target/) or a flat directory of jars
+        Path jar = find(service.name + "/target", service.name + "-*-exec.jar");
+        if (jar == null) {
+            throw new IllegalStateException("No " + service.name + "-*-exec.jar under " + settings.getServicesDir()
+                    + "; build the services first (mvn package -DskipTests) or set services.dir");
+        }
+        return jar;
+    }
+
+    // The H2 driver of the "embedded" profile, copied next to the harness by its build
+    private Path findEmbeddedLib() {
+        Path jar = find("fishwagon-loadtest/target/embedded-lib", EMBEDDED_LIB);
+        if (jar == null) {
+            throw new IllegalStateException("No " + EMBEDDED_LIB + " under " + settings.getServicesDir()
+                    + "; build fishwagon-loadtest (mvn package -DskipTests) or copy the H2 jar next to the services");
+        }
+        return jar;
+    }
+
+    private Path find(String subdirectory, String glob) {
+        Path dir = settings.getServicesDir();
+        for (Path candidate : List.of(dir.resolve(subdirectory), dir)) {
+            if (!Files.isDirectory(candidate)) {
+                continue;
+            }
+            try (DirectoryStream<Path> jars = Files.newDirectoryStream(candidate, glob)) {
+                for (Path jar : jars) {
+                    return jar;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return null;
+    }
+
+    // ✅ Any HTTP response will do: Spring Boot opens the port only once the context is up
+    private void awaitStarted(List<Running> services, long deadline) {
+        for (Running service : services) {
+            URI probe = URI.create("http://127.0.0.1:" + service.service.port + "/actuator/health");
+            while (true) {
+                if (!service.process.isAlive()) {
+                    throw new IllegalStateException(service.service.name + " exited with code "
+                            + service.process.exitValue() + ":\n" + tail(service.log));
+                }
+                if (answers(probe)) {
+                    System.out.printf("%s is up on port %d%n", service.service.name, service.service.port);
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(service.service.name + " did not start within "
+                            + settings.getStartupTimeout() + ":\n" + tail(service.log));
+                }
+                sleep(POLL_INTERVAL);
+            }
+        }
+    }
+
+    private boolean answers(URI uri) {
+        try {
+            httpClient.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return true;
+        } catch (IOException e) {
+            return false;  // Not listening yet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stack", e);
+        }
+    }
+
+    // Reverse start order: the gateway goes first, Eureka last
+    private void stopAll() {
+        List<Running> toStop;
+        synchronized (running) {
+            toStop = new ArrayList<>(running.reversed());
+            running.clear();
+        }
+        for (Running service : toStop) {
+            service.process.destroy();
+        }
+        for (Running service : toStop) {
+            try {
+                if (!service.process.waitFor(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    service.process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                service.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 256-bit HMAC key, base64 as gateway-assertion.secret expects
+    private static String newSecret() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static String tail(Path log) {
+        try {
+            List<String> lines = Files.readAllLines(log);
+            return String.join("\n", lines.subList(Math.max(0, lines.size() - LOG_TAIL_LINES), lines.size()));
+        } catch (IOException e) {
+            return "(cannot read " + log + ": " + e + ")";
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the stack", e);
+        }
+    }
+
+    private static final class Service {
+
+        private final String name;  // Maven module, also the jar name
+        private final int port;
+
+        private Service(String name, int port) {
+            this.name = name;
+            this.port = port;
+        }
+    }
+
+    private static final class Running {
+
+        private final Service service;
+        private final Process process;
+        private final Path log;
+
+        private Running(Service service, Process process, Path log) {
+            this.service = service;
+            this.process = process;
+            this.log = log;
+        }
+    }
+}
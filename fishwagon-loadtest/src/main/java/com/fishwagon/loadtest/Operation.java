@@ -0,0 +1,38 @@
+package com.fishwagon.loadtest;
+
+/**
+ * The requests of the workload, all sent through the gateway.
+ */
+enum Operation {
+
+    LOGIN("login", "POST /auth/public/login"),
+    READ("read", "GET /users/{id}"),
+    REGISTER("register", "POST /users/public/createUser"),
+    ADMIN_LIST("admin-list", "GET /users/admin/findAll");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    // Name used in the mix setting
+    String getKey() {
+        return key;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + key);
+    }
+}
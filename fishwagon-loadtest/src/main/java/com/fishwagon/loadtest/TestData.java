@@ -0,0 +1,193 @@
+package com.fishwagon.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Accounts the workload runs as: an admin (user listing), a manager (user
+ * reads) and a pool of ordinary users (logins). Admin and manager are seeded by
+ * UserManagementService's embedded profile (db/embedded-accounts.sql), since
+ * public registration only creates users; the pool is bulk-imported before the
+ * run. Reruns against a running stack reuse the existing accounts.
+ */
+final class TestData {
+
+    static final String ADMIN = "lt-admin";
+    static final String MANAGER = "lt-manager";
+    static final String SEEDED_PASSWORD = "loadtest-Passw0rd";  // ✅ Matches the hash in db/embedded-accounts.sql
+
+    private static final String USER_PREFIX = "lt-user-";
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration TOKEN_RENEWAL = Duration.ofMinutes(30);  // Access tokens live 1h
+
+    private final GatewayClient client;
+    private final String password;
+    private final List<String> usernames;
+    private final long[] userIds;
+    private final Session admin;
+    private final Session manager;
+
+    private TestData(GatewayClient client, String password, List<String> usernames, long[] userIds,
+            Session admin, Session manager) {
+        this.client = client;
+        this.password = password;
+        this.usernames = usernames;
+        this.userIds = userIds;
+        this.admin = admin;
+        this.manager = manager;
+    }
+
+    /**
+     * Waits until admin and manager can log in (AuthenticationService finds
+     * UserManagementService through Eureka a few seconds after both started),
+     * imports the user pool and reads back the ids.
+     */
+    static TestData create(GatewayClient client, LoadTestSettings settings) {
+        String password = settings.getPassword();
+        long deadline = System.nanoTime() + settings.getStartupTimeout().toNanos();
+
+        Session admin = Session.login(client, ADMIN, SEEDED_PASSWORD, deadline);
+        Session manager = Session.login(client, MANAGER, SEEDED_PASSWORD, deadline);
+
+        List<String> usernames = new ArrayList<>(settings.getUsers());
+        for (int i = 0; i < settings.getUsers(); i++) {
+            usernames.add(String.format("%s%05d", USER_PREFIX, i));
+        }
+        if (!usernames.isEmpty()) {
+            importUsers(client, admin, usernames, password);
+        }
+        long[] userIds = readUserIds(client, admin, settings.getUsers() + 2);
+        System.out.printf("Test data ready: %d users, %d ids%n", usernames.size(), userIds.length);
+        return new TestData(client, password, List.copyOf(usernames), userIds, admin, manager);
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    String randomUsername() {
+        return usernames.isEmpty() ? MANAGER : usernames.get(ThreadLocalRandom.current().nextInt(usernames.size()));
+    }
+
+    long randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    String adminToken() {
+        return admin.bearer(client);
+    }
+
+    String managerToken() {
+        return manager.bearer(client);
+    }
+
+    private static void importUsers(GatewayClient client, Session admin, List<String> usernames, String password) {
+        System.out.printf("Importing %d users...%n", usernames.size());
+        GatewayClient.Response response = client.bulkImport(admin.bearer(client), usernames, password,
+                GatewayClient.ROLE_USER);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Bulk import failed: " + describe(response));
+        }
+        String[] lines = response.getBody().strip().split("\n");
+        JsonNode summary = client.parse(lines[lines.length - 1]);
+        // Rows that failed because the user exists (a rerun) still log in with the same password
+        System.out.printf("Imported %d users, %d already present or failed%n",
+                summary.path("imported").asInt(), summary.path("failed").asInt());
+    }
+
+    private static long[] readUserIds(GatewayClient client, Session admin, int max) {
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0;
+        while (ids.size() < max) {
+            GatewayClient.Response response = client.listUsers(0, admin.bearer(client), afterId, 1000);
+            if (!response.isSuccess()) {
+                throw new IllegalStateException("Listing users failed: " + describe(response));
+            }
+            JsonNode page = client.parse(response.getBody());
+            page.path("users").forEach(user -> ids.add(user.path("id").asLong()));
+            JsonNode next = page.path("nextAfterId");
+            if (next.isMissingNode() || next.isNull()) {
+                break;
+            }
+            afterId = next.asLong();
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No users to read");
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void checkDeadline(long deadline, String action, GatewayClient.Response last) {
+        if (System.nanoTime() > deadline) {
+            throw new IllegalStateException("Gave up " + action + ": " + describe(last));
+        }
+    }
+
+    static String describe(GatewayClient.Response response) {
+        return response.getError() != null ? response.getError().toString()
+                : response.getStatus() + " " + response.getBody();
+    }
+
+    // The gateway's per-account login limit refills slowly; retrying sooner only spends the next token
+    private static Duration retryDelay(GatewayClient.Response response) {
+        return response.getRetryAfter() != null ? response.getRetryAfter() : RETRY_INTERVAL;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preparing test data", e);
+        }
+    }
+
+    /**
+     * Access and refresh token of one account, renewed through /auth/public/refresh
+     * well before the access token expires, so runs may last longer than an hour.
+     */
+    private static final class Session {
+
+        private final String username;
+        private String token;
+        private String refreshToken;
+        private long renewAt;
+
+        private Session(String username, String token, String refreshToken) {
+            this.username = username;
+            this.token = token;
+            this.refreshToken = refreshToken;
+            this.renewAt = System.nanoTime() + TOKEN_RENEWAL.toNanos();
+        }
+
+        static Session login(GatewayClient client, String username, String password, long deadline) {
+            GatewayClient.Response response = client.login(0, username, password);
+            while (!response.isSuccess()) {
+                checkDeadline(deadline, "logging in as " + username, response);
+                sleep(retryDelay(response));
+                response = client.login(0, username, password);
+            }
+            JsonNode body = client.parse(response.getBody());
+            return new Session(username, body.path("token").asText(), body.path("refreshToken").asText());
+        }
+
+        synchronized String bearer(GatewayClient client) {
+            if (System.nanoTime() - renewAt > 0) {
+                GatewayClient.Response response = client.refresh(0, refreshToken);
+                if (!response.isSuccess()) {
+                    throw new IllegalStateException("Cannot renew the token of " + username + ": "
+                            + describe(response));
+                }
+                JsonNode body = client.parse(response.getBody());
+                token = body.path("token").asText();
+                refreshToken = body.path("refreshToken").asText();
+                renewAt = System.nanoTime() + TOKEN_RENEWAL.toNanos();
+            }
+            return token;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.fishwagon.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the operation mix against the gateway, one virtual thread per request
+ * in flight, for a warmup and then a measured interval.
+ *
+ * Closed loop (rate=0): concurrency virtual users, each sending its next request
+ * as soon as the previous one answered; shows the throughput the stack can
+ * sustain. Open loop (rate>0): requests start on a fixed schedule whatever the
+ * stack does, at most concurrency in flight, and latency is counted from the
+ * scheduled start, so time spent waiting behind a stalled stack is not hidden.
+ *
+ * A request counts towards the interval in which it started; the last ones are
+ * awaited before the results are read.
+ */
+final class Workload {
+
+    private final GatewayClient client;
+    private final TestData data;
+    private final LoadTestSettings settings;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+
+    private volatile Map<Operation, EndpointStats> stats = newStats();
+    private volatile boolean running;
+
+    Workload(GatewayClient client, TestData data, LoadTestSettings settings) {
+        this.client = client;
+        this.data = data;
+        this.settings = settings;
+        Map<Operation, Integer> mix = settings.getMix();
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    LoadTestReport run() throws InterruptedException {
+        ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+        Thread driver = settings.getRate() > 0
+                ? Thread.ofPlatform().name("loadtest-open-loop").start(() -> openLoop(requests))
+                : Thread.ofPlatform().name("loadtest-closed-loop").start(() -> closedLoop(requests));
+
+        System.out.printf("Warming up for %s...%n", settings.getWarmup());
+        Thread.sleep(settings.getWarmup());
+        Map<Operation, EndpointStats> measured = newStats();
+        stats = measured;
+        long measuredStart = System.nanoTime();
+        System.out.printf("Measuring for %s...%n", settings.getDuration());
+        Thread.sleep(settings.getDuration());
+        stats = newStats();  // Requests started from now on are not measured
+        long measuredNanos = System.nanoTime() - measuredStart;
+
+        running = false;
+        driver.join();
+        requests.shutdown();
+        Duration drain = settings.getRequestTimeout().plusSeconds(5);
+        if (!requests.awaitTermination(drain.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.out.println("Some requests did not finish within " + drain + "; results may be incomplete");
+        }
+        return new LoadTestReport(settings, measured, measuredNanos);
+    }
+
+    private void closedLoop(ExecutorService requests) {
+        for (int user = 0; user < settings.getConcurrency(); user++) {
+            int virtualUser = user;
+            requests.execute(() -> {
+                while (running) {
+                    execute(virtualUser, next(), System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void openLoop(ExecutorService requests) {
+        Semaphore inFlight = new Semaphore(settings.getConcurrency());
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / settings.getRate());
+        long scheduled = System.nanoTime();
+        for (int sequence = 0; running; sequence++) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocks when the stack falls behind; the delay still counts, latency starts at the schedule
+            inFlight.acquireUninterruptibly();
+            int request = sequence;
+            long start = scheduled;
+            requests.execute(() -> {
+                try {
+                    execute(request, next(), start);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            scheduled += interval;
+        }
+    }
+
+    private void execute(int clientIndex, Operation operation, long startNanos) {
+        Map<Operation, EndpointStats> target = stats;
+        GatewayClient.Response response = switch (operation) {
+            case LOGIN -> client.login(clientIndex, data.randomUsername(), data.getPassword());
+            case READ -> client.getUser(clientIndex, data.managerToken(), data.randomUserId());
+            case REGISTER -> client.register(clientIndex, "lt-" + runId + "-" + registrations.incrementAndGet(),
+                    data.getPassword());
+            case ADMIN_LIST -> client.listUsers(clientIndex, data.adminToken(), data.randomUserId(),
+                    settings.getAdminListLimit());
+        };
+        target.get(operation).record(response, System.nanoTime() - startNanos);
+    }
+
+    private Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static Map<Operation, EndpointStats> newStats() {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+        return stats;
+    }
+}